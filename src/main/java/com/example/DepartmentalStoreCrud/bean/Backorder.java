@@ -1,9 +1,12 @@
 package com.example.DepartmentalStoreCrud.bean;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
@@ -11,9 +14,14 @@ import javax.persistence.Table;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Data
-@Table(name = "Backorder")
+@Table(name = "Backorder", indexes = {
+        @Index(name = "idx_backorder_queue", columnList = "productID, orderTimestamp"),
+        @Index(name = "idx_backorder_timestamp", columnList = "orderTimestamp, backorderID")
+})
 @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"})
 public class Backorder {
 
@@ -24,7 +32,17 @@ public class Backorder {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long backorderID;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "orderID", referencedColumnName = "orderID")
     private Order order;
+
+    /**
+     * productID and orderTimestamp are copied from the order so that a product's
+     * backorder queue can be read in order straight from the index
+     */
+    @Column(name = "productID")
+    private Long productID;
+
+    @Column(name = "orderTimestamp")
+    private LocalDateTime orderTimestamp;
 }
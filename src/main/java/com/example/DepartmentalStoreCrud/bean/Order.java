@@ -1,10 +1,14 @@
 package com.example.DepartmentalStoreCrud.bean;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
@@ -17,7 +21,11 @@ import java.time.LocalDateTime;
 
 @Entity
 @Data
-@Table(name = "Orders")
+@Table(name = "Orders", indexes = {
+        @Index(name = "idx_order_timestamp", columnList = "orderTimestamp, orderID"),
+        @Index(name = "idx_order_customer", columnList = "customerID, orderTimestamp"),
+        @Index(name = "idx_order_stock_pending", columnList = "stockPending, productID")
+})
 @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"})
 public class Order {
 
@@ -29,11 +37,11 @@ public class Order {
     @Column(name = "orderID")
     private Long orderID;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "productID")
     private ProductInventory productInventory;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customerID")
     private Customer customer;
 
@@ -52,4 +60,11 @@ public class Order {
 
     @Column(name = "totalPrice")
     private double totalPrice;
+
+    /**
+     * stockPending marks an order whose stock was reserved in memory and not yet taken from the product row
+     */
+    @JsonIgnore
+    @Column(name = "stockPending")
+    private boolean stockPending;
 }
@@ -1,24 +1,33 @@
 package com.example.DepartmentalStoreCrud.bean;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Data
-@Table(name = "ProductInventory")
+@Table(name = "ProductInventory", indexes = @Index(name = "idx_product_search_name", columnList = "searchName"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"})
 public class ProductInventory {
 
@@ -36,6 +45,13 @@ public class ProductInventory {
     @Column(name = "productName")
     private String productName;
 
+    /**
+     * searchName is the lowercase product name, indexed for name searches
+     */
+    @JsonIgnore
+    @Column(name = "searchName")
+    private String searchName;
+
     @Column(name = "price")
     private double price;
 
@@ -46,4 +62,13 @@ public class ProductInventory {
     @JsonIgnore
     @JoinColumn(name = "productID")
     private List<Order> orders = new ArrayList<>();
+
+    /**
+     * Keeps searchName in step with productName before every insert and update
+     */
+    @PrePersist
+    @PreUpdate
+    void normalizeSearchName() {
+        searchName = productName == null ? null : productName.toLowerCase(Locale.ROOT);
+    }
 }
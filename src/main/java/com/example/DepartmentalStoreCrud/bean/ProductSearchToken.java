@@ -0,0 +1,64 @@
+package com.example.DepartmentalStoreCrud.bean;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Data
+@Table(name = "ProductSearchToken", indexes = {
+        @Index(name = "idx_product_search_token", columnList = "token, productID"),
+        @Index(name = "idx_product_search_token_product", columnList = "productID")
+})
+public class ProductSearchToken {
+
+    /**
+     * tokenID is the primary key for ProductSearchToken table
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "tokenID")
+    private Long tokenID;
+
+    @Column(name = "productID")
+    private Long productID;
+
+    /**
+     * token is the lowercase product name from the start of one of its words to the end,
+     * so a search for text at the start of any word is a range seek on idx_product_search_token
+     */
+    @Column(name = "token")
+    private String token;
+
+    /**
+     * To split a lowercase product name into its tokens, one per word.
+     * A word starts at a letter or digit that doesn't follow another letter or digit.
+     *
+     * @param searchName - Lowercase product name
+     * @return Tokens of the name, empty when there is no name
+     */
+    public static List<String> tokensOf(final String searchName) {
+        List<String> tokens = new ArrayList<>();
+        if (searchName == null) {
+            return tokens;
+        }
+        boolean inWord = false;
+        for (int i = 0; i < searchName.length(); i++) {
+            boolean wordChar = Character.isLetterOrDigit(searchName.charAt(i));
+            if (wordChar && !inWord) {
+                tokens.add(searchName.substring(i));
+            }
+            inWord = wordChar;
+        }
+        return tokens;
+    }
+}
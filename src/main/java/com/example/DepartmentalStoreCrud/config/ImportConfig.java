@@ -0,0 +1,44 @@
+package com.example.DepartmentalStoreCrud.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class ImportConfig {
+
+    /**
+     * Executor running the product import jobs.
+     * Both the pool and its queue are bounded, a full queue rejects the upload instead of piling up files.
+     *
+     * @param threads - Number of imports running at once
+     * @param queueCapacity - Number of imports allowed to wait
+     * @return Import executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor importExecutor(@Value("${import.threads:2}") final int threads,
+                                                 @Value("${import.queue-capacity:10}") final int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("product-import-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * Pool parsing the sheets of a workbook in parallel, shared by all running imports.
+     *
+     * @param parallelism - Number of sheets parsed at once
+     * @return Sheet pool
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool importSheetPool(@Value("${import.sheet-parallelism:4}") final int parallelism) {
+        return new ForkJoinPool(parallelism);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.DepartmentalStoreCrud.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer {
+
+    /**
+     * Autowired streaming executor
+     */
+    @Autowired
+    @Qualifier("streamingExecutor")
+    private AsyncTaskExecutor streamingExecutor;
+
+    /**
+     * Executor writing streamed responses such as the catalog export.
+     * Bounded, so a burst of exports can't start an unbounded number of open database cursors.
+     * Static, so it can be injected back into this configuration.
+     *
+     * @param threads - Number of responses streamed at once
+     * @param queueCapacity - Number of responses allowed to wait
+     * @return Streaming executor
+     */
+    @Bean
+    public static ThreadPoolTaskExecutor streamingExecutor(@Value("${streaming.threads:4}") final int threads,
+                                                           @Value("${streaming.queue-capacity:20}") final int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("response-stream-");
+        return executor;
+    }
+
+    /**
+     * Runs StreamingResponseBody writers on the streaming executor.
+     */
+    @Override
+    public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor);
+    }
+}
@@ -1,6 +1,9 @@
 package com.example.DepartmentalStoreCrud.controller;
 
 import com.example.DepartmentalStoreCrud.bean.Backorder;
+import com.example.DepartmentalStoreCrud.dto.BackorderView;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
 import com.example.DepartmentalStoreCrud.service.BackorderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,8 +18,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import java.util.List;
 
 @RestController
 @RequestMapping(path = "/backorders")
@@ -45,18 +48,28 @@ public class BackorderController {
     }
 
     /**
-     * Retrieves all backorders.
+     * Retrieves the backorders page by page, using the last backorder read as the cursor of the next page.
      *
-     * @return List of backorders.
+     * @param after The cursor of the last backorder already read, none for the first page.
+     * @param limit The number of backorders to read, capped by the server.
+     * @param sort The key the backorders are read by, id or timestamp.
+     * @return A page of backorders with the cursor of the next page.
      */
-    @Operation(operationId = "getAllBackorders", summary = "Get all Backorders")
+    @Operation(operationId = "getBackorders", summary = "Get Backorders page by page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Backorders fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Invalid cursor or sort"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping(produces = "application/json")
-    public ResponseEntity<List<Backorder>> getAllBackorders() {
-        return new ResponseEntity<>(backorderService.getAllBackorders(), HttpStatus.OK);
+    public ResponseEntity<CursorPage<BackorderView>> getBackorders(
+            @Parameter(description = "The cursor of the last backorder already read")
+            @RequestParam(value = "after", required = false) final String after,
+            @Parameter(description = "The number of backorders to read")
+            @RequestParam(value = "limit", defaultValue = "20") final Integer limit,
+            @Parameter(description = "The key the backorders are read by, id or timestamp")
+            @RequestParam(value = "sort", defaultValue = "id") final String sort) {
+        return ResponseEntity.ok(backorderService.getBackorders(after, limit, SortKey.from(sort)));
     }
 
     /**
@@ -72,10 +85,10 @@ public class BackorderController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping(path = "/{backorderId}", produces = "application/json")
-    public ResponseEntity<Backorder> getBackorderById(
+    public ResponseEntity<BackorderView> getBackorderById(
             @Parameter(description = "The ID of the backorder to retrieve.", required = true)
             @PathVariable final Long backorderId) {
-        return ResponseEntity.ok(backorderService.getBackorderById(backorderId));
+        return ResponseEntity.ok(BackorderView.from(backorderService.getBackorderById(backorderId)));
     }
 
     /**
@@ -1,7 +1,10 @@
 package com.example.DepartmentalStoreCrud.controller;
 
 import com.example.DepartmentalStoreCrud.bean.Customer;
-import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.CustomerOrderView;
+import com.example.DepartmentalStoreCrud.dto.Lookup;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
 import com.example.DepartmentalStoreCrud.service.CustomerService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,6 +13,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,7 +22,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
 import java.util.List;
 
 @RestController
@@ -32,18 +39,28 @@ public class CustomerController {
     private CustomerService customerService;
 
     /**
-     * Retrieves all customers.
+     * Retrieves the customers page by page, using the last customer read as the cursor of the next page.
      *
-     * @return List of customers.
+     * @param after The cursor of the last customer already read, none for the first page.
+     * @param limit The number of customers to read, capped by the server.
+     * @param sort The key the customers are read by, only id.
+     * @return A page of customers with the cursor of the next page.
      */
-    @Operation(operationId = "getAllCustomers", summary = "Get all Customers")
+    @Operation(operationId = "getCustomers", summary = "Get Customers page by page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customers fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Invalid cursor or sort"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping(produces = "application/json")
-    public ResponseEntity<List<Customer>> getAllCustomers() {
-        return new ResponseEntity<>(customerService.getAllCustomers(), HttpStatus.OK);
+    public ResponseEntity<CursorPage<Customer>> getCustomers(
+            @Parameter(description = "The cursor of the last customer already read")
+            @RequestParam(value = "after", required = false) final String after,
+            @Parameter(description = "The number of customers to read")
+            @RequestParam(value = "limit", defaultValue = "20") final Integer limit,
+            @Parameter(description = "The key the customers are read by, only id")
+            @RequestParam(value = "sort", defaultValue = "id") final String sort) {
+        return ResponseEntity.ok(customerService.getCustomers(after, limit, SortKey.from(sort)));
     }
 
     /**
@@ -66,10 +83,29 @@ public class CustomerController {
     }
 
     /**
-     * Retrieves all orders placed by a customer.
+     * Retrieves many customers at once.
+     *
+     * @param ids The IDs of the customers to retrieve.
+     * @return The customers found in the order asked, and the IDs that match no customer.
+     */
+    @Operation(operationId = "lookupCustomers", summary = "Get Customers by a list of IDs")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers looked up"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs in one request, or a null ID"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(path = "/lookup", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<Lookup<Customer>> lookupCustomers(@RequestBody(required = true) final List<Long> ids) {
+        return new ResponseEntity<>(customerService.getCustomersByIds(ids), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the orders placed by a customer, newest first, page by page.
      *
      * @param customerID The ID of the customer.
-     * @return The orders placed by a customer.
+     * @param after The cursor of the last order already read, none for the first page.
+     * @param limit The number of orders to read, capped by the server.
+     * @return A page of the customer's orders with the cursor of the next page.
      */
     @Operation(operationId = "getOrdersByCustomer", summary = "Get orders placed by a customer")
     @ApiResponses(value = {
@@ -78,10 +114,14 @@ public class CustomerController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping(path = "/{customerID}/orders", produces = "application/json")
-    public ResponseEntity<List<Order>> getOrdersByCustomer(
+    public ResponseEntity<CursorPage<CustomerOrderView>> getOrdersByCustomer(
             @Parameter(description = "The ID of the customer required.", required = true)
-            @PathVariable final Long customerID) {
-        return new ResponseEntity<>(customerService.getOrdersByCustomer(customerID), HttpStatus.OK);
+            @PathVariable final Long customerID,
+            @Parameter(description = "The cursor of the last order already read")
+            @RequestParam(value = "after", required = false) final String after,
+            @Parameter(description = "The number of orders to read")
+            @RequestParam(value = "limit", defaultValue = "20") final Integer limit) {
+        return new ResponseEntity<>(customerService.getOrdersByCustomer(customerID, after, limit), HttpStatus.OK);
     }
 
     /**
@@ -143,4 +183,23 @@ public class CustomerController {
         customerService.deleteCustomerDetails(customerID);
         return new ResponseEntity<>("Customer deleted successfully with id: " + customerID, HttpStatus.OK);
     }
+
+    /**
+     * Streams all customers as one JSON array, written to the response while the customers are read.
+     * Meant for integrations that need the whole table, others should page through GET /customers.
+     *
+     * @return All customers.
+     */
+    @Operation(operationId = "streamCustomers", summary = "Stream all Customers")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers streamed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(path = "/stream")
+    public ResponseEntity<StreamingResponseBody> streamCustomers() {
+        StreamingResponseBody body = customerService::streamCustomers;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 }
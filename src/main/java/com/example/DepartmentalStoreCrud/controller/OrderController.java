@@ -1,10 +1,16 @@
 package com.example.DepartmentalStoreCrud.controller;
 
 import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.OrderPlacement;
+import com.example.DepartmentalStoreCrud.dto.OrderView;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
+import com.example.DepartmentalStoreCrud.service.OrderIntakeQueue;
 import com.example.DepartmentalStoreCrud.service.OrderService;
 import io.swagger.v3.oas.annotations.Parameter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -16,7 +22,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
 import java.util.List;
 
 @RestController
@@ -30,18 +39,34 @@ public class OrderController {
     private OrderService orderService;
 
     /**
-     * Retrieves all orders.
+     * Autowired OrderIntakeQueue
+     */
+    @Autowired
+    private OrderIntakeQueue orderIntake;
+
+    /**
+     * Retrieves the orders page by page, using the last order read as the cursor of the next page.
      *
-     * @return List of orders.
+     * @param after The cursor of the last order already read, none for the first page.
+     * @param limit The number of orders to read, capped by the server.
+     * @param sort The key the orders are read by, id or timestamp.
+     * @return A page of orders with the cursor of the next page.
      */
-    @Operation(operationId = "getAllOrders", summary = "Get all Orders")
+    @Operation(operationId = "getOrders", summary = "Get Orders page by page")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Orders fetched successfully"),
+            @ApiResponse(responseCode = "404", description = "Invalid cursor or sort"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping(produces = "application/json")
-    public ResponseEntity<List<Order>> getAllOrders() {
-        return new ResponseEntity<>(orderService.getAllOrders(), HttpStatus.OK);
+    public ResponseEntity<CursorPage<OrderView>> getOrders(
+            @Parameter(description = "The cursor of the last order already read")
+            @RequestParam(value = "after", required = false) final String after,
+            @Parameter(description = "The number of orders to read")
+            @RequestParam(value = "limit", defaultValue = "20") final Integer limit,
+            @Parameter(description = "The key the orders are read by, id or timestamp")
+            @RequestParam(value = "sort", defaultValue = "id") final String sort) {
+        return ResponseEntity.ok(orderService.getOrders(after, limit, SortKey.from(sort)));
     }
 
     /**
@@ -57,27 +82,46 @@ public class OrderController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping(path = "/{orderID}", produces = "application/json")
-    public ResponseEntity<Order> getOrderById(
+    public ResponseEntity<OrderView> getOrderById(
             @Parameter(description = "The ID of the order to retrieve.", required = true)
             @PathVariable final Long orderID) {
-        return ResponseEntity.ok(orderService.getOrderById(orderID));
+        return ResponseEntity.ok(OrderView.from(orderService.getOrderById(orderID)));
     }
 
     /**
-     * Adds a new order.
+     * Adds a new order, through the group-commit intake when it is on.
      *
      * @param order The order to add.
-     * @return A response entity indicating the status of the operation.
+     * @return The placement outcome, 201 when served from stock and 202 when placed as a backorder.
      */
     @Operation(operationId = "addOrderDetails", summary = "Add Order Details")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Order placed successfully"),
+            @ApiResponse(responseCode = "202", description = "Order placed as a backorder"),
+            @ApiResponse(responseCode = "503", description = "Order intake queue is full"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping(consumes = "application/json", produces = "application/json")
-    public ResponseEntity<String> addOrderDetails(@RequestBody(required = true) final Order order) {
-        orderService.addOrderDetails(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body("Order placed successfully.");
+    public ResponseEntity<OrderPlacement> addOrderDetails(@RequestBody(required = true) final Order order) {
+        OrderPlacement placement = orderIntake.isEnabled() ? orderIntake.place(order) : orderService.addOrderDetails(order);
+        return ResponseEntity.status(placementStatus(placement)).body(placement);
+    }
+
+    /**
+     * Adds a list of orders in one transaction, each with its own outcome.
+     *
+     * @param orders The orders to add.
+     * @return The placement outcome of each order, in request order.
+     */
+    @Operation(operationId = "addOrdersDetails", summary = "Add Orders in bulk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders placed, backordered or rejected one by one"),
+            @ApiResponse(responseCode = "400", description = "Too many orders in one request"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(path = "/batch", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<List<OrderPlacement>> addOrdersDetails(@RequestBody(required = true) final List<Order> orders) {
+        return ResponseEntity.ok(orderService.addOrdersDetails(orders));
     }
 
     /**
@@ -90,6 +134,7 @@ public class OrderController {
     @Operation(operationId = "updateOrderDetails", summary = "Update Order Details")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order updated successfully"),
+            @ApiResponse(responseCode = "202", description = "Order updated as a backorder"),
             @ApiResponse(responseCode = "404", description = "Order not found"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
@@ -97,7 +142,10 @@ public class OrderController {
     public ResponseEntity<String> updateOrderDetails(
             @Parameter(description = "The ID of the order to update.", required = true)
             @PathVariable final Long orderID, @RequestBody(required = true) final Order order) {
-            orderService.updateOrderDetails(orderID, order);
+            OrderPlacement placement = orderService.updateOrderDetails(orderID, order);
+            if (placement.getStatus() == OrderPlacement.Status.BACKORDERED) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body("Order updated successfully as a backorder.");
+            }
             return ResponseEntity.ok("Order updated successfully.");
     }
 
@@ -120,4 +168,33 @@ public class OrderController {
         orderService.deleteOrderDetails(orderID);
         return ResponseEntity.ok("Order deleted successfully.");
     }
+
+    /**
+     * Maps a placement outcome to its response status.
+     *
+     * @param placement The placement outcome.
+     * @return 201 for a placed order, 202 for a backorder.
+     */
+    private HttpStatus placementStatus(final OrderPlacement placement) {
+        return placement.getStatus() == OrderPlacement.Status.BACKORDERED ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+    }
+
+    /**
+     * Streams all orders as one JSON array, written to the response while the orders are read.
+     * Meant for integrations that need the whole table, others should page through GET /orders.
+     *
+     * @return All orders.
+     */
+    @Operation(operationId = "streamOrders", summary = "Stream all Orders")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders streamed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(path = "/stream")
+    public ResponseEntity<StreamingResponseBody> streamOrders() {
+        StreamingResponseBody body = orderService::streamOrders;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
 }
@@ -1,14 +1,18 @@
 package com.example.DepartmentalStoreCrud.controller;
 
 
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
 import com.example.DepartmentalStoreCrud.service.ProductExcelService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -28,21 +32,44 @@ public class ProductExcelController {
     private ProductExcelService productExcelService;
 
     /**
-     * Uploads an Excel file containing product details and saves the data to the database.
+     * Uploads an Excel file containing product details and queues its import into the database.
      *
      * @param file The Excel file to upload.
-     * @return A response entity indicating the status of the operation.
+     * @param mode insert to add every row as a new product, upsert to update the products with the same name.
+     * @return The queued import job.
      */
     @Operation(operationId = "addProductDetailsViaExcel", summary = "Add Product Details Via Excel")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Excel file uploaded to db"),
+            @ApiResponse(responseCode = "202", description = "Excel import queued"),
             @ApiResponse(responseCode = "400", description = "Invalid file format"),
+            @ApiResponse(responseCode = "404", description = "Unknown import mode"),
+            @ApiResponse(responseCode = "503", description = "Too many imports queued"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = "application/json")
-    public ResponseEntity<String> uploadProductsViaExcel(@Parameter(description = "The Excel file to upload.", required = true)
-                                                         @RequestParam("file") final MultipartFile file) throws IOException {
-        productExcelService.addProductsViaExcel(file);
-        return ResponseEntity.ok("Products added to database");
+    public ResponseEntity<ImportJob> uploadProductsViaExcel(@Parameter(description = "The Excel file to upload.", required = true)
+                                                            @RequestParam("file") final MultipartFile file,
+                                                            @Parameter(description = "insert or upsert.")
+                                                            @RequestParam(value = "mode", defaultValue = "insert") final String mode)
+            throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productExcelService.addProductsViaExcel(file, ImportJob.Mode.from(mode)));
+    }
+
+    /**
+     * Retrieves the progress of an Excel import.
+     *
+     * @param jobID The ID of the import job.
+     * @return The import job with its row counts and throughput.
+     */
+    @Operation(operationId = "getExcelImportStatus", summary = "Get Excel Import Status")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import job found"),
+            @ApiResponse(responseCode = "404", description = "Import job not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/upload/{jobID}", produces = "application/json")
+    public ResponseEntity<ImportJob> getImportStatus(@Parameter(description = "The ID of the import job.", required = true)
+                                                     @PathVariable final String jobID) {
+        return ResponseEntity.ok(productExcelService.getImportJob(jobID));
     }
 }
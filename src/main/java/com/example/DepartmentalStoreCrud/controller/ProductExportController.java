@@ -0,0 +1,57 @@
+package com.example.DepartmentalStoreCrud.controller;
+
+import com.example.DepartmentalStoreCrud.service.ProductExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+
+@RestController
+@RequestMapping(path = "/products")
+public class ProductExportController {
+
+    /**
+     * Autowired ProductExportService
+     */
+    @Autowired
+    private ProductExportService productExportService;
+
+    /**
+     * Exports the whole product catalog, written straight to the response while it is read.
+     *
+     * @param format xlsx or csv.
+     * @return The catalog as an attachment.
+     */
+    @Operation(operationId = "exportProducts", summary = "Export Products as Excel or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catalog exported"),
+            @ApiResponse(responseCode = "404", description = "Unknown export format"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(path = "/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "xlsx or csv.")
+            @RequestParam(value = "format", defaultValue = "xlsx") final String format) {
+        ProductExportService.Format exportFormat = ProductExportService.Format.from(format);
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename("products." + exportFormat.name().toLowerCase(Locale.ROOT))
+                .build();
+        StreamingResponseBody body = output -> productExportService.exportProducts(exportFormat, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .body(body);
+    }
+}
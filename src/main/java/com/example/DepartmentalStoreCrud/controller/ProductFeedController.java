@@ -0,0 +1,105 @@
+package com.example.DepartmentalStoreCrud.controller;
+
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
+import com.example.DepartmentalStoreCrud.service.ProductFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+@RestController
+@RequestMapping(path = "/products")
+public class ProductFeedController {
+
+    /**
+     * Autowired ProductFeedService
+     */
+    @Autowired
+    private ProductFeedService productFeedService;
+
+    /**
+     * Uploads a CSV or NDJSON catalog feed and queues its import into the database.
+     *
+     * @param file The feed to upload, a .csv file with a header row or a .ndjson file with one product per line.
+     * @param mode insert to add every row as a new product, upsert to update the products with the same name.
+     * @return The queued import job.
+     */
+    @Operation(operationId = "addProductDetailsViaFeed", summary = "Add Product Details Via CSV or NDJSON Feed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Feed import queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid file format"),
+            @ApiResponse(responseCode = "404", description = "Unknown import mode"),
+            @ApiResponse(responseCode = "503", description = "Too many imports queued"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/feed", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = "application/json")
+    public ResponseEntity<ImportJob> uploadProductFeed(@Parameter(description = "The CSV or NDJSON feed to upload.", required = true)
+                                                       @RequestParam("file") final MultipartFile file,
+                                                       @Parameter(description = "insert or upsert.")
+                                                       @RequestParam(value = "mode", defaultValue = "insert") final String mode)
+            throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productFeedService.addProductsViaFeed(file, ImportJob.Mode.from(mode)));
+    }
+
+    /**
+     * Streams a CSV or NDJSON catalog feed sent as the request body and queues its import into the database.
+     * The body is copied to disk as it arrives, so feeds of any size avoid the multipart limits.
+     *
+     * @param request The request whose body is the feed, sent as text/csv or application/x-ndjson.
+     * @param name The name the import job reports the feed under.
+     * @param mode insert to add every row as a new product, upsert to update the products with the same name.
+     * @return The queued import job.
+     */
+    @Operation(operationId = "streamProductDetailsViaFeed", summary = "Add Product Details Via CSV or NDJSON Request Body")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Feed import queued"),
+            @ApiResponse(responseCode = "400", description = "Invalid file format"),
+            @ApiResponse(responseCode = "404", description = "Unknown import mode"),
+            @ApiResponse(responseCode = "503", description = "Too many imports queued"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/feed", consumes = {"text/csv", "application/x-ndjson"}, produces = "application/json")
+    public ResponseEntity<ImportJob> streamProductFeed(final HttpServletRequest request,
+                                                       @Parameter(description = "The feed's file name, shown in the job report.")
+                                                       @RequestParam(value = "name", required = false) final String name,
+                                                       @Parameter(description = "insert or upsert.")
+                                                       @RequestParam(value = "mode", defaultValue = "insert") final String mode)
+            throws IOException {
+        ImportJob.Mode importMode = ImportJob.Mode.from(mode);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(productFeedService.addProductsViaFeed(
+                Channels.newChannel(request.getInputStream()), name, request.getContentType(), importMode));
+    }
+
+    /**
+     * Retrieves the progress of a feed import.
+     *
+     * @param jobID The ID of the import job.
+     * @return The import job with its row counts and throughput.
+     */
+    @Operation(operationId = "getFeedImportStatus", summary = "Get Feed Import Status")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import job found"),
+            @ApiResponse(responseCode = "404", description = "Import job not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(value = "/feed/{jobID}", produces = "application/json")
+    public ResponseEntity<ImportJob> getFeedImportStatus(@Parameter(description = "The ID of the import job.", required = true)
+                                                         @PathVariable final String jobID) {
+        return ResponseEntity.ok(productFeedService.getImportJob(jobID));
+    }
+}
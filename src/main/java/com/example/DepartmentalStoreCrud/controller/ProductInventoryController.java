@@ -1,12 +1,16 @@
 package com.example.DepartmentalStoreCrud.controller;
 
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.Lookup;
+import com.example.DepartmentalStoreCrud.dto.ProductSuggestion;
 import com.example.DepartmentalStoreCrud.service.ProductInventoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -18,6 +22,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 
 @RestController
@@ -45,6 +50,27 @@ public class ProductInventoryController {
         return new ResponseEntity<>(productInventoryService.getAllProducts(), HttpStatus.OK);
     }
 
+    /**
+     * Retrieves the products after a product ID, using the ID as a cursor instead of a page offset.
+     *
+     * @param after The last product ID already read, 0 for the first page.
+     * @param limit The number of products to read, capped by the server.
+     * @return A page of products with the cursor of the next page.
+     */
+    @Operation(operationId = "getProductsAfter", summary = "Get products after a product ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products fetched successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(params = "after", produces = "application/json")
+    public ResponseEntity<CursorPage<ProductInventory>> getProductsAfter(
+            @Parameter(description = "The last product ID already read, 0 for the first page", required = true)
+            @RequestParam("after") final Long after,
+            @Parameter(description = "The number of products to read")
+            @RequestParam(value = "limit", defaultValue = "20") final Integer limit) {
+        return ResponseEntity.ok(productInventoryService.getProductsAfter(after, limit));
+    }
+
     /**
      * Retrieves the products on the basis of page size and page number provided.
      *
@@ -66,6 +92,25 @@ public class ProductInventoryController {
         return productInventoryService.getProductsPagination(pageNumber, pageSize);
     }
 
+    /**
+     * Retrieves many products at once, e.g. the lines of a cart.
+     *
+     * @param ids The IDs of the products to retrieve.
+     * @return The products found in the order asked, and the IDs that match no product.
+     */
+    @Operation(operationId = "getProductsByIds", summary = "Get Products by a list of IDs")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products looked up"),
+            @ApiResponse(responseCode = "400", description = "Too many IDs in one request, or a null ID"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(params = "ids", produces = "application/json")
+    public ResponseEntity<Lookup<ProductInventory>> getProductsByIds(
+            @Parameter(description = "Comma separated IDs of the products to retrieve", required = true)
+            @RequestParam(value = "ids") final List<Long> ids) {
+        return ResponseEntity.ok(productInventoryService.getProductsByIds(ids));
+    }
+
     /**
      * Retrieves a product by ID.
      *
@@ -147,6 +192,8 @@ public class ProductInventoryController {
      * Searches a product by name.
      *
      * @param productName Name of the product
+     * @param pageNumber The page number to be viewed.
+     * @param pageSize The size of that page.
      * @return A response entity indicating the status of the operation.
      */
     @Operation(operationId = "searchProducts", summary = "Search for products by name")
@@ -157,7 +204,51 @@ public class ProductInventoryController {
     @GetMapping(path = "/search", produces = "application/json")
     public ResponseEntity<List<ProductInventory>> searchProducts(
             @Parameter(description = "The name of the product to search for", required = true)
-            @RequestParam(value = "name") final String productName) {
-        return ResponseEntity.ok(productInventoryService.searchProducts(productName));
+            @RequestParam(value = "name") final String productName,
+            @Parameter(description = "The page number to view")
+            @RequestParam(value = "page", defaultValue = "0") final Integer pageNumber,
+            @Parameter(description = "The size of the page")
+            @RequestParam(value = "size", defaultValue = "20") final Integer pageSize) {
+        return ResponseEntity.ok(productInventoryService.searchProducts(productName, pageNumber, pageSize).getContent());
+    }
+
+    /**
+     * Suggests products for the text typed so far, without touching the database.
+     *
+     * @param query Text typed so far.
+     * @param limit Maximum number of suggestions.
+     * @return Matching products, best first.
+     */
+    @Operation(operationId = "autocompleteProducts", summary = "Suggest products by name or description")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions fetched successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(path = "/autocomplete", produces = "application/json")
+    public ResponseEntity<List<ProductSuggestion>> autocompleteProducts(
+            @Parameter(description = "The text typed so far", required = true)
+            @RequestParam(value = "q") final String query,
+            @Parameter(description = "The maximum number of suggestions")
+            @RequestParam(value = "limit", defaultValue = "10") final Integer limit) {
+        return ResponseEntity.ok(productInventoryService.autocompleteProducts(query, limit));
+    }
+
+    /**
+     * Streams all products as one JSON array, written to the response while the products are read.
+     * Meant for integrations that need the whole table, others should page through GET /products.
+     *
+     * @return All products.
+     */
+    @Operation(operationId = "streamProducts", summary = "Stream all Products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products streamed"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping(path = "/stream")
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        StreamingResponseBody body = productInventoryService::streamProducts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 }
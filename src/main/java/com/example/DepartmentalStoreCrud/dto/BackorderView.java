@@ -0,0 +1,38 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import com.example.DepartmentalStoreCrud.bean.Backorder;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A backorder as rendered in responses, with its order rendered as an OrderView.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"})
+public class BackorderView {
+
+    private Long backorderID;
+
+    private Long productID;
+
+    private LocalDateTime orderTimestamp;
+
+    private OrderView order;
+
+    /**
+     * To render a backorder.
+     *
+     * @param backorder - Backorder, with its order, customer and product already fetched
+     * @return Backorder view
+     */
+    public static BackorderView from(final Backorder backorder) {
+        return new BackorderView(backorder.getBackorderID(), backorder.getProductID(), backorder.getOrderTimestamp(),
+                backorder.getOrder() == null ? null : OrderView.from(backorder.getOrder()));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset paginated listing.
+ * The next page is read by passing nextCursor back as the after parameter, there is no page count.
+ *
+ * @param <T> Type of the listed items
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"})
+public class CursorPage<T> {
+
+    private List<T> content;
+
+    private boolean hasNext;
+
+    /**
+     * Cursor of the last item of the page, null on the last page
+     */
+    private String nextCursor;
+
+    /**
+     * To size the slice of a page.
+     *
+     * @param limit - Number of items asked for
+     * @param maxPageSize - Largest page the server returns
+     * @return First slice of limit items, limit being kept between 1 and maxPageSize
+     */
+    public static Pageable pageable(final Integer limit, final int maxPageSize) {
+        return PageRequest.of(0, Math.max(1, Math.min(limit, maxPageSize)));
+    }
+
+    /**
+     * To read a cursor holding an ID.
+     *
+     * @param cursor - Cursor text, null for the first page
+     * @return ID to read after, 0 for the first page
+     */
+    public static long parseIdCursor(final String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cursor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * To build a page from a slice read after a cursor.
+     *
+     * @param slice - Slice of items
+     * @param cursorOf - Cursor of an item
+     * @param <T> Type of the listed items
+     * @return Cursor page
+     */
+    public static <T> CursorPage<T> of(final Slice<T> slice, final Function<T, String> cursorOf) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() && !content.isEmpty() ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, slice.hasNext(), nextCursor);
+    }
+}
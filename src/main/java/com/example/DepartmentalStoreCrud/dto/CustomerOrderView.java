@@ -0,0 +1,32 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order as shown in a customer's order history, read straight into this shape without loading the entities.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerOrderView {
+
+    private Long orderID;
+
+    private Long productID;
+
+    private String productName;
+
+    private int orderQuantity;
+
+    private double discount;
+
+    private double discountedPrice;
+
+    private double totalPrice;
+
+    private LocalDateTime orderTimestamp;
+}
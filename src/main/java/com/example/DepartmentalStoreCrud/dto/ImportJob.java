@@ -0,0 +1,221 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a product import running in the background.
+ * The counters are updated by the import thread and read by the status endpoint.
+ */
+@Getter
+public class ImportJob {
+
+    /**
+     * Stage of an import job
+     */
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /**
+     * How imported rows are written
+     */
+    public enum Mode {
+        /**
+         * Every row becomes a new product
+         */
+        INSERT,
+        /**
+         * Rows update the product with the same name, or become a new product when there is none
+         */
+        UPSERT;
+
+        /**
+         * To read a mode given in any case, such as upsert.
+         *
+         * @param mode - Mode's name
+         * @return Import mode
+         */
+        public static Mode from(final String mode) {
+            for (Mode value : values()) {
+                if (value.name().equalsIgnoreCase(mode.trim())) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Unknown import mode: " + mode + ", use insert or upsert");
+        }
+    }
+
+    private final String jobID = UUID.randomUUID().toString();
+
+    private final String fileName;
+
+    private final Mode mode;
+
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private volatile Status status = Status.QUEUED;
+
+    private volatile LocalDateTime startedAt;
+
+    private volatile LocalDateTime finishedAt;
+
+    private volatile String error;
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong rowsParsed = new AtomicLong();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong rowsPersisted = new AtomicLong();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong rowsUpdated = new AtomicLong();
+
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong rowsRejected = new AtomicLong();
+
+    private final int maxRejectedRows;
+
+    @Getter(AccessLevel.NONE)
+    private final List<RejectedRow> rejectedRows = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param uploadedFileName - Name of the uploaded file
+     * @param importMode - How rows are written
+     * @param rejectedRowsLimit - Number of rejected rows described in the report
+     */
+    public ImportJob(final String uploadedFileName, final Mode importMode, final int rejectedRowsLimit) {
+        this.fileName = uploadedFileName;
+        this.mode = importMode;
+        this.maxRejectedRows = rejectedRowsLimit;
+    }
+
+    /**
+     * @return Number of data rows read from the file
+     */
+    public long getRowsParsed() {
+        return rowsParsed.get();
+    }
+
+    /**
+     * @return Number of rows saved as products
+     */
+    public long getRowsPersisted() {
+        return rowsPersisted.get();
+    }
+
+    /**
+     * @return Number of persisted rows that updated an existing product
+     */
+    public long getRowsUpdated() {
+        return rowsUpdated.get();
+    }
+
+    /**
+     * @return Number of rows that could not be imported
+     */
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    /**
+     * @return The first rejected rows with the reason they were rejected, up to maxRejectedRows
+     */
+    public List<RejectedRow> getRejectedRows() {
+        return Collections.unmodifiableList(rejectedRows);
+    }
+
+    /**
+     * @return Rows saved per second since the job started
+     */
+    public double getRowsPerSecond() {
+        if (startedAt == null) {
+            return 0;
+        }
+        long millis = Duration.between(startedAt, finishedAt == null ? LocalDateTime.now() : finishedAt).toMillis();
+        return millis == 0 ? 0 : rowsPersisted.get() * 1000.0 / millis;
+    }
+
+    /**
+     * To mark the job as picked up by the executor.
+     */
+    public void start() {
+        startedAt = LocalDateTime.now();
+        status = Status.RUNNING;
+    }
+
+    /**
+     * To mark the job as done.
+     */
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    /**
+     * To mark the job as stopped by an error.
+     *
+     * @param message - Reason of the failure
+     */
+    public void fail(final String message) {
+        error = message;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    /**
+     * To count a data row read from the file.
+     */
+    public void rowParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    /**
+     * To count rows saved as products.
+     *
+     * @param count - Number of rows saved
+     */
+    public void rowsPersisted(final long count) {
+        rowsPersisted.addAndGet(count);
+    }
+
+    /**
+     * To count rows saved over existing products.
+     *
+     * @param count - Number of rows updated
+     */
+    public void rowsUpdated(final long count) {
+        rowsUpdated.addAndGet(count);
+    }
+
+    /**
+     * To count a row that could not be imported, describing it while the report has room.
+     *
+     * @param source - Sheet or file of the row
+     * @param row - Row number
+     * @param reason - Why the row was rejected
+     */
+    public void rowRejected(final String source, final long row, final String reason) {
+        if (rowsRejected.incrementAndGet() <= maxRejectedRows) {
+            rejectedRows.add(new RejectedRow(source, row, reason));
+        }
+    }
+
+    /**
+     * @return True once the job is no longer queued or running
+     */
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+}
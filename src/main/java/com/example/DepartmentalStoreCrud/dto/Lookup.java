@@ -0,0 +1,72 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import com.example.DepartmentalStoreCrud.exception.InvalidRequestException;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of resolving a list of IDs at once.
+ * Found items keep the order their IDs were asked in, and the IDs that matched nothing are listed apart.
+ *
+ * @param <T> Type of the looked up items
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"})
+public class Lookup<T> {
+
+    private List<T> found;
+
+    private List<Long> missing;
+
+    /**
+     * To check the IDs of a lookup and drop repeated ones, keeping the first occurrence.
+     *
+     * @param ids - IDs asked for
+     * @param maxIds - Largest number of IDs resolved at once
+     * @return Distinct IDs in request order
+     * @throws InvalidRequestException when an ID is null or there are more than maxIds distinct IDs
+     */
+    public static Set<Long> distinctIds(final Collection<Long> ids, final int maxIds) {
+        Set<Long> distinct = new LinkedHashSet<>(ids);
+        if (distinct.contains(null)) {
+            throw new InvalidRequestException("IDs must not be null");
+        }
+        if (distinct.size() > maxIds) {
+            throw new InvalidRequestException("At most " + maxIds + " IDs can be looked up at once");
+        }
+        return distinct;
+    }
+
+    /**
+     * To arrange the loaded items in request order.
+     *
+     * @param ids - Distinct IDs in request order
+     * @param byId - Loaded items by ID
+     * @param <T> Type of the looked up items
+     * @return Lookup result
+     */
+    public static <T> Lookup<T> of(final Collection<Long> ids, final Map<Long, T> byId) {
+        List<T> found = new ArrayList<>(byId.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            T item = byId.get(id);
+            if (item == null) {
+                missing.add(id);
+            } else {
+                found.add(item);
+            }
+        }
+        return new Lookup<>(found, missing);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPlacement {
+
+    /**
+     * Outcome of placing an order
+     */
+    public enum Status {
+        PLACED,
+        BACKORDERED,
+        REJECTED
+    }
+
+    private Status status;
+
+    private Long orderID;
+
+    private Long backorderID;
+
+    /**
+     * Why the order was rejected, only set for rejected orders
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String reason;
+
+    /**
+     * To describe an order that was served from stock.
+     *
+     * @param orderID - Order's ID
+     * @return Placement outcome
+     */
+    public static OrderPlacement placed(final Long orderID) {
+        return new OrderPlacement(Status.PLACED, orderID, null, null);
+    }
+
+    /**
+     * To describe an order that was placed as a backorder.
+     *
+     * @param orderID - Order's ID
+     * @param backorderID - Backorder's ID
+     * @return Placement outcome
+     */
+    public static OrderPlacement backordered(final Long orderID, final Long backorderID) {
+        return new OrderPlacement(Status.BACKORDERED, orderID, backorderID, null);
+    }
+
+    /**
+     * To describe an order of a batch that was not placed.
+     *
+     * @param reason - Why the order was rejected
+     * @return Placement outcome
+     */
+    public static OrderPlacement rejected(final String reason) {
+        return new OrderPlacement(Status.REJECTED, null, null, reason);
+    }
+}
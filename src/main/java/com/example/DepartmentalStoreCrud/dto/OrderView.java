@@ -0,0 +1,82 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import com.example.DepartmentalStoreCrud.bean.Customer;
+import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An order as rendered in responses.
+ * Built from an order whose customer and product were fetched with it, so rendering never loads a lazy association.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@SuppressFBWarnings(value = {"EI_EXPOSE_REP", "EI_EXPOSE_REP2"})
+public class OrderView {
+
+    private Long orderID;
+
+    private CustomerSummary customer;
+
+    private ProductSummary productInventory;
+
+    private LocalDateTime orderTimestamp;
+
+    private int orderQuantity;
+
+    private double discount;
+
+    private double discountedPrice;
+
+    private double totalPrice;
+
+    /**
+     * Customer who placed an order
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CustomerSummary {
+
+        private Long customerID;
+
+        private String fullName;
+    }
+
+    /**
+     * Product an order is for
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ProductSummary {
+
+        private Long productID;
+
+        private String productName;
+
+        private double price;
+    }
+
+    /**
+     * To render an order.
+     *
+     * @param order - Order, with its customer and product already fetched
+     * @return Order view
+     */
+    public static OrderView from(final Order order) {
+        Customer customer = order.getCustomer();
+        ProductInventory product = order.getProductInventory();
+        return new OrderView(order.getOrderID(),
+                customer == null ? null : new CustomerSummary(customer.getCustomerID(), customer.getFullName()),
+                product == null ? null : new ProductSummary(product.getProductID(), product.getProductName(), product.getPrice()),
+                order.getOrderTimestamp(), order.getOrderQuantity(), order.getDiscount(),
+                order.getDiscountedPrice(), order.getTotalPrice());
+    }
+}
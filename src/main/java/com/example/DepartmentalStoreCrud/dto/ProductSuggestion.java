@@ -0,0 +1,15 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+
+    private Long productID;
+
+    private String productName;
+}
@@ -0,0 +1,26 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RejectedRow {
+
+    /**
+     * Sheet or file the row was read from
+     */
+    private String source;
+
+    /**
+     * Row number in the source, counting the header row as 1 when there is one
+     */
+    private long row;
+
+    /**
+     * Why the row was not imported
+     */
+    private String reason;
+}
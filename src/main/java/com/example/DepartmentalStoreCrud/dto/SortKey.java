@@ -0,0 +1,24 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+/**
+ * Key a cursor paginated listing is ordered by
+ */
+public enum SortKey {
+    ID,
+    TIMESTAMP;
+
+    /**
+     * To read a sort key given in any case, such as timestamp.
+     *
+     * @param sort - Sort key's name
+     * @return Sort key
+     */
+    public static SortKey from(final String sort) {
+        for (SortKey value : values()) {
+            if (value.name().equalsIgnoreCase(sort.trim())) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort: " + sort + ", use id or timestamp");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.DepartmentalStoreCrud.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a listing ordered by timestamp then ID, written as timestamp_id such as 2024-05-01T10:15:30_42.
+ * The ID breaks ties between rows created at the same instant.
+ */
+@Data
+@AllArgsConstructor
+public class TimestampCursor {
+
+    private LocalDateTime timestamp;
+
+    private Long id;
+
+    /**
+     * To write the cursor of a row.
+     *
+     * @param timestamp - Row's timestamp
+     * @param id - Row's ID
+     * @return Cursor text
+     */
+    public static String format(final LocalDateTime timestamp, final Long id) {
+        return timestamp + "_" + id;
+    }
+
+    /**
+     * To read a cursor written by format.
+     *
+     * @param cursor - Cursor text
+     * @return Cursor
+     */
+    public static TimestampCursor parse(final String cursor) {
+        int separator = cursor.lastIndexOf('_');
+        try {
+            if (separator > 0) {
+                return new TimestampCursor(LocalDateTime.parse(cursor.substring(0, separator)),
+                        Long.valueOf(cursor.substring(separator + 1)));
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            // reported below like any other malformed cursor
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.DepartmentalStoreCrud.exception;
 
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -52,16 +53,16 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
      * Handles IllegalStateException
      */
     @ExceptionHandler(IllegalStateException.class)
-    public ResponseEntity<ExceptionDetails> handleOutOfStockException(final IllegalStateException ex, final WebRequest request) {
+    public ResponseEntity<ExceptionDetails> handleIllegalStateException(final IllegalStateException ex, final WebRequest request) {
         ExceptionDetails error = new ExceptionDetails();
         error.setTimestamp(LocalDateTime.now());
-        error.setStatus(HttpStatus.CREATED.value());
-        error.setError(HttpStatus.CREATED.getReasonPhrase());
+        error.setStatus(HttpStatus.CONFLICT.value());
+        error.setError(HttpStatus.CONFLICT.getReasonPhrase());
         error.setMessage(ex.getMessage());
         error.setTrace(getStackTraceAsString(ex));
         error.setPath(request.getDescription(false));
 
-        return new ResponseEntity<>(error, HttpStatus.CREATED);
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
     }
 
     /**
@@ -80,6 +81,38 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles InvalidRequestException
+     */
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ExceptionDetails> handleInvalidRequestException(final InvalidRequestException ex, final WebRequest request) {
+        ExceptionDetails error = new ExceptionDetails();
+        error.setTimestamp(LocalDateTime.now());
+        error.setStatus(HttpStatus.BAD_REQUEST.value());
+        error.setError(HttpStatus.BAD_REQUEST.getReasonPhrase());
+        error.setMessage(ex.getMessage());
+        error.setTrace(getStackTraceAsString(ex));
+        error.setPath(request.getDescription(false));
+
+        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles TaskRejectedException
+     */
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ExceptionDetails> handleTaskRejectedException(final TaskRejectedException ex, final WebRequest request) {
+        ExceptionDetails error = new ExceptionDetails();
+        error.setTimestamp(LocalDateTime.now());
+        error.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        error.setError(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase());
+        error.setMessage("Too many tasks are queued, try again later");
+        error.setTrace(getStackTraceAsString(ex));
+        error.setPath(request.getDescription(false));
+
+        return new ResponseEntity<>(error, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     private String getStackTraceAsString(final Exception ex) {
         StringWriter sw = new StringWriter();
         return sw.toString();
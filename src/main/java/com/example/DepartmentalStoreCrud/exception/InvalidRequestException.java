@@ -0,0 +1,15 @@
+package com.example.DepartmentalStoreCrud.exception;
+
+/**
+ * Thrown when a request asks for something the service won't do as sent, e.g. more items than it accepts at once.
+ * Answered with 400 Bad Request.
+ */
+public class InvalidRequestException extends RuntimeException {
+
+    /**
+     * @param message - What is wrong with the request
+     */
+    public InvalidRequestException(final String message) {
+        super(message);
+    }
+}
@@ -2,12 +2,96 @@ package com.example.DepartmentalStoreCrud.repository;
 
 import com.example.DepartmentalStoreCrud.bean.Backorder;
 import com.example.DepartmentalStoreCrud.bean.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface BackorderRepository extends JpaRepository<Backorder, Long> {
    Backorder findByOrder(Order order);
+
+   /**
+    * Backorder with its order and the order's customer and product, fetched in the same query.
+    *
+    * @param backorderID - Backorder's ID
+    * @return Backorder, empty if there is none with the ID
+    */
+   @Override
+   @EntityGraph(attributePaths = {"order", "order.customer", "order.productInventory"})
+   Optional<Backorder> findById(Long backorderID);
 //   @Query("SELECT b FROM Backorder b WHERE b.order = :order")
 //   Backorder findByOrder(@Param("order") Order order);
+
+   /**
+    * Pending backorders of a single product, oldest first, fetched together with their orders.
+    * Fulfilled backorders are deleted, so every row here is still open.
+    *
+    * @param productID - Product's ID
+    * @return Backorders waiting for the product
+    */
+   @Query("SELECT b FROM Backorder b JOIN FETCH b.order WHERE b.productID = :productID "
+           + "ORDER BY b.orderTimestamp, b.backorderID")
+   List<Backorder> findPendingByProductID(@Param("productID") Long productID);
+
+   /**
+    * Backorders after a backorder ID, in ID order, fetched with their order in the same query.
+    *
+    * @param backorderID - Last backorder ID already read
+    * @param pageable - Page size, the page number is always 0
+    * @return Slice of backorders, without a count query
+    */
+   @EntityGraph(attributePaths = {"order", "order.customer", "order.productInventory"})
+   Slice<Backorder> findByBackorderIDGreaterThanOrderByBackorderIDAsc(Long backorderID, Pageable pageable);
+
+   /**
+    * First backorders by order timestamp, the backorder ID breaking ties.
+    *
+    * @param pageable - Page size, the page number is always 0
+    * @return Slice of backorders, without a count query
+    */
+   @EntityGraph(attributePaths = {"order", "order.customer", "order.productInventory"})
+   @Query("SELECT b FROM Backorder b ORDER BY b.orderTimestamp, b.backorderID")
+   Slice<Backorder> findFirstByTimestamp(Pageable pageable);
+
+   /**
+    * Backorders after an (order timestamp, backorder ID) position, read from the timestamp index.
+    *
+    * @param orderTimestamp - Order timestamp of the last backorder already read
+    * @param backorderID - ID of the last backorder already read
+    * @param pageable - Page size, the page number is always 0
+    * @return Slice of backorders, without a count query
+    */
+   @EntityGraph(attributePaths = {"order", "order.customer", "order.productInventory"})
+   @Query("SELECT b FROM Backorder b WHERE b.orderTimestamp > :orderTimestamp "
+           + "OR (b.orderTimestamp = :orderTimestamp AND b.backorderID > :backorderID) "
+           + "ORDER BY b.orderTimestamp, b.backorderID")
+   Slice<Backorder> findAfterTimestamp(@Param("orderTimestamp") LocalDateTime orderTimestamp,
+                                       @Param("backorderID") Long backorderID, Pageable pageable);
+
+   /**
+    * Whether any backorder still lacks its queue columns, answered from the head of idx_backorder_queue.
+    *
+    * @return True when a backorder has no product id
+    */
+   boolean existsByProductIDIsNull();
+
+   /**
+    * Copies product id and order timestamp onto backorders created before those columns existed.
+    * Only rows without a product id are written.
+    *
+    * @return Number of backorders updated
+    */
+   @Modifying
+   @Query("UPDATE Backorder b SET b.productID = (SELECT o.productInventory.productID FROM Order o WHERE o = b.order), "
+           + "b.orderTimestamp = (SELECT o.orderTimestamp FROM Order o WHERE o = b.order) WHERE b.productID IS NULL")
+   int backfillQueueColumns();
 }
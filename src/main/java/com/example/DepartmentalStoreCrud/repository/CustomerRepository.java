@@ -1,10 +1,41 @@
 package com.example.DepartmentalStoreCrud.repository;
 
 import com.example.DepartmentalStoreCrud.bean.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    /**
+     * Customers after a customer ID, in ID order.
+     *
+     * @param customerID - Last customer ID already read
+     * @param pageable - Page size, the page number is always 0
+     * @return Slice of customers, without a count query
+     */
+    Slice<Customer> findByCustomerIDGreaterThanOrderByCustomerIDAsc(Long customerID, Pageable pageable);
+
+    /**
+     * Streams every customer in id order with a forward-only cursor.
+     * Must be consumed inside a transaction and closed.
+     *
+     * @return Stream of customers
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT c FROM Customer c ORDER BY c.customerID")
+    Stream<Customer> streamAllOrderByCustomerID();
 }
@@ -0,0 +1,117 @@
+package com.example.DepartmentalStoreCrud.repository;
+
+import com.example.DepartmentalStoreCrud.bean.Backorder;
+import com.example.DepartmentalStoreCrud.bean.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Writes orders and backorders with plain JDBC batches, for orders placed in bulk.
+ * Hibernate can't batch inserts of IDENTITY keyed entities, so these go through here instead of saveAll.
+ */
+@Repository
+public class OrderBatchRepository {
+
+    /**
+     * Insert statement, rewritten by the driver into multi-row inserts when rewriteBatchedStatements is on.
+     */
+    private static final String INSERT_ORDER = "INSERT INTO orders (productid, customerid, order_timestamp, "
+            + "order_quantity, discount, discounted_price, total_price, stock_pending) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Insert statement for the backorders of a bulk placement.
+     */
+    private static final String INSERT_BACKORDER = "INSERT INTO backorder (orderid, productid, order_timestamp) VALUES (?, ?, ?)";
+
+    /**
+     * Autowired JdbcTemplate
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * To insert orders in a single JDBC batch.
+     * The orders must carry their customer, product and timestamp. The generated IDs are set back on them.
+     *
+     * @param orders - Orders to insert
+     * @return The same orders with their IDs
+     */
+    public List<Order> insertAll(final List<Order> orders) {
+        return insert(INSERT_ORDER, orders, (statement, order) -> {
+            statement.setLong(1, order.getProductInventory().getProductID());
+            statement.setLong(2, order.getCustomer().getCustomerID());
+            statement.setTimestamp(3, Timestamp.valueOf(order.getOrderTimestamp()));
+            statement.setInt(4, order.getOrderQuantity());
+            statement.setDouble(5, order.getDiscount());
+            statement.setDouble(6, order.getDiscountedPrice());
+            statement.setDouble(7, order.getTotalPrice());
+            statement.setBoolean(8, order.isStockPending());
+        }, Order::setOrderID);
+    }
+
+    /**
+     * To insert backorders of already inserted orders in a single JDBC batch.
+     * The generated IDs are set back on the backorders.
+     *
+     * @param backorders - Backorders to insert
+     * @return The same backorders with their IDs
+     */
+    public List<Backorder> insertBackorders(final List<Backorder> backorders) {
+        return insert(INSERT_BACKORDER, backorders, (statement, backorder) -> {
+            statement.setLong(1, backorder.getOrder().getOrderID());
+            statement.setLong(2, backorder.getProductID());
+            statement.setTimestamp(3, Timestamp.valueOf(backorder.getOrderTimestamp()));
+        }, Backorder::setBackorderID);
+    }
+
+    private <T> List<T> insert(final String sql, final List<T> rows, final RowBinder<T> binder, final KeySetter<T> keySetter) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        PreparedStatementCreator insert = connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+        return jdbcTemplate.execute(insert, (PreparedStatementCallback<List<T>>) statement -> {
+            for (T row : rows) {
+                binder.bind(statement, row);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            ResultSet keys = statement.getGeneratedKeys();
+            try {
+                for (T row : rows) {
+                    if (!keys.next()) {
+                        break;
+                    }
+                    keySetter.set(row, keys.getLong(1));
+                }
+            } finally {
+                JdbcUtils.closeResultSet(keys);
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Binds one row to the insert statement
+     */
+    private interface RowBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+
+    /**
+     * Sets a generated ID back on its row
+     */
+    private interface KeySetter<T> {
+        void set(T row, Long key);
+    }
+}
@@ -2,13 +2,129 @@ package com.example.DepartmentalStoreCrud.repository;
 
 import com.example.DepartmentalStoreCrud.bean.Order;
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.CustomerOrderView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByCustomer_CustomerID(Long customerID);
     List<Order> findByProductInventory(ProductInventory productInventory);
+
+    /**
+     * Order with its customer and product, fetched in the same query.
+     *
+     * @param orderID - Order's ID
+     * @return Order, empty if there is none with the ID
+     */
+    @Override
+    @EntityGraph(attributePaths = {"customer", "productInventory"})
+    Optional<Order> findById(Long orderID);
+
+    /**
+     * Order locked with SELECT ... FOR UPDATE until the transaction ends, so the stock write-behind
+     * can't take its stock while it is being cancelled. Only the order row is locked, its product is loaded lazily.
+     *
+     * @param orderID - Order's ID
+     * @return Order, empty if there is none with the ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Order o WHERE o.orderID = :orderID")
+    Optional<Order> findByIdForUpdate(@Param("orderID") Long orderID);
+
+    /**
+     * Orders after an order ID, in ID order, fetched with their customer and product in the same query.
+     *
+     * @param orderID - Last order ID already read
+     * @param pageable - Page size, the page number is always 0
+     * @return Slice of orders, without a count query
+     */
+    @EntityGraph(attributePaths = {"customer", "productInventory"})
+    Slice<Order> findByOrderIDGreaterThanOrderByOrderIDAsc(Long orderID, Pageable pageable);
+
+    /**
+     * First orders by timestamp, the order ID breaking ties.
+     *
+     * @param pageable - Page size, the page number is always 0
+     * @return Slice of orders, without a count query
+     */
+    @EntityGraph(attributePaths = {"customer", "productInventory"})
+    @Query("SELECT o FROM Order o ORDER BY o.orderTimestamp, o.orderID")
+    Slice<Order> findFirstByTimestamp(Pageable pageable);
+
+    /**
+     * Orders after a (timestamp, order ID) position, read from the timestamp index.
+     *
+     * @param orderTimestamp - Timestamp of the last order already read
+     * @param orderID - ID of the last order already read
+     * @param pageable - Page size, the page number is always 0
+     * @return Slice of orders, without a count query
+     */
+    @EntityGraph(attributePaths = {"customer", "productInventory"})
+    @Query("SELECT o FROM Order o WHERE o.orderTimestamp > :orderTimestamp "
+            + "OR (o.orderTimestamp = :orderTimestamp AND o.orderID > :orderID) ORDER BY o.orderTimestamp, o.orderID")
+    Slice<Order> findAfterTimestamp(@Param("orderTimestamp") LocalDateTime orderTimestamp,
+                                    @Param("orderID") Long orderID, Pageable pageable);
+
+    /**
+     * Newest orders of a customer, read as views in one query joined to the product.
+     *
+     * @param customerID - Customer's ID
+     * @param pageable - Page size, the page number is always 0
+     * @return Slice of orders, without a count query
+     */
+    @Query("SELECT new com.example.DepartmentalStoreCrud.dto.CustomerOrderView(o.orderID, p.productID, p.productName, "
+            + "o.orderQuantity, o.discount, o.discountedPrice, o.totalPrice, o.orderTimestamp) "
+            + "FROM Order o LEFT JOIN o.productInventory p WHERE o.customer.customerID = :customerID "
+            + "ORDER BY o.orderTimestamp DESC, o.orderID DESC")
+    Slice<CustomerOrderView> findLatestViewsByCustomer(@Param("customerID") Long customerID, Pageable pageable);
+
+    /**
+     * Orders of a customer placed before a (timestamp, order ID) position, newest first,
+     * read from the (customerID, orderTimestamp) index.
+     *
+     * @param customerID - Customer's ID
+     * @param orderTimestamp - Timestamp of the last order already read
+     * @param orderID - ID of the last order already read
+     * @param pageable - Page size, the page number is always 0
+     * @return Slice of orders, without a count query
+     */
+    @Query("SELECT new com.example.DepartmentalStoreCrud.dto.CustomerOrderView(o.orderID, p.productID, p.productName, "
+            + "o.orderQuantity, o.discount, o.discountedPrice, o.totalPrice, o.orderTimestamp) "
+            + "FROM Order o LEFT JOIN o.productInventory p WHERE o.customer.customerID = :customerID "
+            + "AND (o.orderTimestamp < :orderTimestamp OR (o.orderTimestamp = :orderTimestamp AND o.orderID < :orderID)) "
+            + "ORDER BY o.orderTimestamp DESC, o.orderID DESC")
+    Slice<CustomerOrderView> findViewsByCustomerBefore(@Param("customerID") Long customerID,
+                                                       @Param("orderTimestamp") LocalDateTime orderTimestamp,
+                                                       @Param("orderID") Long orderID, Pageable pageable);
+
+    /**
+     * Streams every order in id order with a forward-only cursor, joined to its customer and product.
+     * Must be consumed inside a transaction and closed.
+     *
+     * @return Stream of orders
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.productInventory ORDER BY o.orderID")
+    Stream<Order> streamAllOrderByOrderID();
 }
@@ -0,0 +1,383 @@
+package com.example.DepartmentalStoreCrud.repository;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.bean.ProductSearchToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Writes products with plain JDBC batches.
+ * Hibernate can't batch inserts of IDENTITY keyed entities, so bulk loads go through here instead of saveAll.
+ */
+@Repository
+public class ProductBatchRepository {
+
+    /**
+     * Insert statement, rewritten by the driver into multi-row inserts when rewriteBatchedStatements is on.
+     */
+    private static final String INSERT_PRODUCT = "INSERT INTO product_inventory "
+            + "(product_name, product_desc, search_name, price, product_quantity) VALUES (?, ?, ?, ?, ?)";
+
+    /**
+     * Update statement for products matched by an import.
+     */
+    private static final String UPDATE_PRODUCT = "UPDATE product_inventory SET product_name = ?, product_desc = ?, "
+            + "search_name = ?, price = ?, product_quantity = ? WHERE productid = ?";
+
+    /**
+     * Lookup of the products with the given lowercase names, served by idx_product_search_name.
+     */
+    private static final String FIND_BY_SEARCH_NAMES = "SELECT productid, search_name, product_quantity "
+            + "FROM product_inventory WHERE search_name IN (:searchNames) ORDER BY productid";
+
+    /**
+     * Committed orders whose stock hasn't been taken from their product yet, served by idx_order_stock_pending.
+     */
+    private static final String FIND_PENDING_STOCK = "SELECT orderid, productid, order_quantity FROM orders "
+            + "WHERE stock_pending = true ORDER BY productid, orderid LIMIT ? FOR UPDATE";
+
+    /**
+     * Takes the pending quantity of a product from its stock.
+     */
+    private static final String TAKE_STOCK = "UPDATE product_inventory SET product_quantity = product_quantity - ? "
+            + "WHERE productid = ?";
+
+    /**
+     * Takes the quantity of an order from its product only if enough is left.
+     */
+    private static final String DECREMENT_STOCK = "UPDATE product_inventory SET product_quantity = product_quantity - ? "
+            + "WHERE productid = ? AND product_quantity >= ?";
+
+    /**
+     * Gives the quantity of a cancelled order back to its product.
+     */
+    private static final String CREDIT_STOCK = "UPDATE product_inventory SET product_quantity = product_quantity + ? "
+            + "WHERE productid = ?";
+
+    /**
+     * Marks an order's stock as taken.
+     */
+    private static final String CLEAR_PENDING_STOCK = "UPDATE orders SET stock_pending = false WHERE orderid = ?";
+
+    /**
+     * Stock of a product left once its pending orders are taken, read as one consistent snapshot.
+     */
+    private static final String FIND_AVAILABLE_STOCK = "SELECT p.product_quantity - COALESCE((SELECT SUM(o.order_quantity) "
+            + "FROM orders o WHERE o.stock_pending = true AND o.productid = p.productid), 0) "
+            + "FROM product_inventory p WHERE p.productid = ?";
+
+    /**
+     * Removes the name tokens of products.
+     */
+    private static final String DELETE_SEARCH_TOKENS = "DELETE FROM product_search_token WHERE productid IN (:productIDs)";
+
+    /**
+     * Insert statement for the name tokens of a product.
+     */
+    private static final String INSERT_SEARCH_TOKEN = "INSERT INTO product_search_token (productid, token) VALUES (?, ?)";
+
+    /**
+     * Named products without any name token yet, in id order after the given id.
+     */
+    private static final String FIND_UNTOKENIZED = "SELECT p.productid, p.search_name FROM product_inventory p "
+            + "WHERE p.productid > ? AND p.search_name IS NOT NULL AND NOT EXISTS "
+            + "(SELECT 1 FROM product_search_token t WHERE t.productid = p.productid) ORDER BY p.productid LIMIT ?";
+
+    /**
+     * Autowired JdbcTemplate
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Autowired NamedParameterJdbcTemplate
+     */
+    @Autowired
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    /**
+     * Shared EntityManagerFactory, its second-level cache doesn't see JDBC writes.
+     */
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * To insert products and their name tokens in JDBC batches.
+     * The generated IDs are set back on the given products.
+     *
+     * @param products - Products to insert
+     * @return The same products with their IDs
+     */
+    public List<ProductInventory> insertAll(final List<ProductInventory> products) {
+        if (products.isEmpty()) {
+            return products;
+        }
+        PreparedStatementCreator insert = connection -> connection.prepareStatement(INSERT_PRODUCT, Statement.RETURN_GENERATED_KEYS);
+        jdbcTemplate.execute(insert, (PreparedStatementCallback<List<ProductInventory>>) statement -> {
+            for (ProductInventory product : products) {
+                product.setSearchName(searchName(product));
+                statement.setString(1, product.getProductName());
+                statement.setString(2, product.getProductDesc());
+                statement.setString(3, product.getSearchName());
+                statement.setDouble(4, product.getPrice());
+                statement.setInt(5, product.getProductQuantity());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            ResultSet keys = statement.getGeneratedKeys();
+            try {
+                for (ProductInventory product : products) {
+                    if (!keys.next()) {
+                        break;
+                    }
+                    product.setProductID(keys.getLong(1));
+                }
+            } finally {
+                JdbcUtils.closeResultSet(keys);
+            }
+            return products;
+        });
+        insertSearchTokens(products);
+        return products;
+    }
+
+    /**
+     * To update products in a single JDBC batch, keyed by their IDs.
+     * Their name tokens are rewritten, and they are evicted from the second-level cache, which the batch bypasses.
+     *
+     * @param products - Products to update
+     */
+    public void updateAll(final List<ProductInventory> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_PRODUCT, products, products.size(), (statement, product) -> {
+            product.setSearchName(searchName(product));
+            statement.setString(1, product.getProductName());
+            statement.setString(2, product.getProductDesc());
+            statement.setString(3, product.getSearchName());
+            statement.setDouble(4, product.getPrice());
+            statement.setInt(5, product.getProductQuantity());
+            statement.setLong(6, product.getProductID());
+        });
+        replaceSearchTokens(products);
+        evictCached(products.stream().map(ProductInventory::getProductID).collect(Collectors.toList()));
+    }
+
+    /**
+     * To rewrite the name tokens of products after their names were saved.
+     *
+     * @param products - Saved products, with their IDs
+     */
+    public void replaceSearchTokens(final Collection<ProductInventory> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        deleteSearchTokens(products.stream().map(ProductInventory::getProductID).collect(Collectors.toList()));
+        insertSearchTokens(products);
+    }
+
+    /**
+     * To remove the name tokens of products, e.g. once they are deleted.
+     *
+     * @param productIDs - Products' IDs
+     */
+    public void deleteSearchTokens(final Collection<Long> productIDs) {
+        if (productIDs.isEmpty()) {
+            return;
+        }
+        namedJdbcTemplate.update(DELETE_SEARCH_TOKENS, Map.of("productIDs", productIDs));
+    }
+
+    /**
+     * To write the name tokens of the named products stored before the tokens existed, a chunk at a time.
+     * Only products without any token are read, so once every product has its tokens this is a single read.
+     *
+     * @param chunkSize - Number of products tokenized per round
+     * @return Number of products tokenized
+     */
+    public int fillMissingSearchTokens(final int chunkSize) {
+        int filled = 0;
+        long after = 0;
+        while (true) {
+            List<ProductInventory> products = jdbcTemplate.query(FIND_UNTOKENIZED, (row, rowNum) -> {
+                ProductInventory product = new ProductInventory();
+                product.setProductID(row.getLong("productid"));
+                product.setSearchName(row.getString("search_name"));
+                return product;
+            }, after, chunkSize);
+            if (products.isEmpty()) {
+                return filled;
+            }
+            insertSearchTokens(products);
+            filled += products.size();
+            after = products.get(products.size() - 1).getProductID();
+        }
+    }
+
+    /**
+     * To take the stock of pending orders from their products, oldest orders of each product first.
+     * The orders are locked, their quantities applied as one decrement per product and then
+     * marked as taken, all in one transaction, so an order's stock is taken exactly once.
+     *
+     * @param limit - Largest number of orders applied
+     * @return Quantity taken by product ID
+     */
+    @Transactional
+    public Map<Long, Long> takePendingStock(final int limit) {
+        Map<Long, Long> quantities = new TreeMap<>();
+        List<Long> orderIDs = new ArrayList<>();
+        jdbcTemplate.query(FIND_PENDING_STOCK, (RowCallbackHandler) row -> {
+            orderIDs.add(row.getLong("orderid"));
+            quantities.merge(row.getLong("productid"), row.getLong("order_quantity"), Long::sum);
+        }, limit);
+        if (orderIDs.isEmpty()) {
+            return quantities;
+        }
+        List<Map.Entry<Long, Long>> decrements = new ArrayList<>(quantities.entrySet());
+        jdbcTemplate.batchUpdate(TAKE_STOCK, decrements, decrements.size(), (statement, decrement) -> {
+            statement.setLong(1, decrement.getValue());
+            statement.setLong(2, decrement.getKey());
+        });
+        jdbcTemplate.batchUpdate(CLEAR_PENDING_STOCK, orderIDs, orderIDs.size(),
+                (statement, orderID) -> statement.setLong(1, orderID));
+        return quantities;
+    }
+
+    /**
+     * To take the quantity out of a product's stock only if enough is left, in a single guarded UPDATE.
+     * Unlike a JPQL bulk update, which clears the whole product region of the second-level cache, only this
+     * product is evicted, again once the transaction completes so a read in between can't cache the old stock.
+     *
+     * @param productID - Product's ID
+     * @param quantity - Quantity to take out of stock
+     * @return 1 if the stock was decremented, 0 if there was not enough stock
+     */
+    public int decrementStock(final Long productID, final int quantity) {
+        int updated = jdbcTemplate.update(DECREMENT_STOCK, quantity, productID, quantity);
+        if (updated == 1) {
+            evictOnCompletion(productID);
+        }
+        return updated;
+    }
+
+    /**
+     * To give quantity back to a product's stock in a single UPDATE, so concurrent changes to the same
+     * product are added to rather than overwritten. Only this product's cached entry is evicted.
+     *
+     * @param productID - Product's ID
+     * @param quantity - Quantity given back
+     * @return Number of rows updated, 0 when the product doesn't exist
+     */
+    public int creditStock(final Long productID, final int quantity) {
+        int updated = jdbcTemplate.update(CREDIT_STOCK, quantity, productID);
+        if (updated == 1) {
+            evictOnCompletion(productID);
+        }
+        return updated;
+    }
+
+    /**
+     * To evict a product changed by a stock UPDATE now and again once the transaction ends,
+     * so a read racing the commit can't leave the old quantity cached.
+     *
+     * @param productID - Product's ID
+     */
+    private void evictOnCompletion(final Long productID) {
+        List<Long> productIDs = List.of(productID);
+        evictCached(productIDs);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    evictCached(productIDs);
+                }
+            });
+        }
+    }
+
+    /**
+     * To read the stock of a product net of its pending orders.
+     *
+     * @param productID - Product's ID
+     * @return Available stock, 0 when the product doesn't exist
+     */
+    public long findAvailableStock(final Long productID) {
+        List<Long> stock = jdbcTemplate.queryForList(FIND_AVAILABLE_STOCK, Long.class, productID);
+        return stock.isEmpty() || stock.get(0) == null ? 0 : stock.get(0);
+    }
+
+    /**
+     * To evict products from the second-level cache after they were written with JDBC.
+     *
+     * @param productIDs - Products' IDs
+     */
+    public void evictCached(final Collection<Long> productIDs) {
+        Cache cache = entityManagerFactory.getCache();
+        for (Long productID : productIDs) {
+            cache.evict(ProductInventory.class, productID);
+        }
+    }
+
+    /**
+     * To find the stored products matching lowercase names in one query.
+     * Only the ID, search name and quantity are read. When a name is stored twice the oldest product wins.
+     *
+     * @param searchNames - Lowercase product names
+     * @return Products by search name
+     */
+    public Map<String, ProductInventory> findBySearchNames(final Collection<String> searchNames) {
+        Map<String, ProductInventory> products = new HashMap<>();
+        if (searchNames.isEmpty()) {
+            return products;
+        }
+        namedJdbcTemplate.query(FIND_BY_SEARCH_NAMES, Map.of("searchNames", searchNames), (RowCallbackHandler) row -> {
+            ProductInventory product = new ProductInventory();
+            product.setProductID(row.getLong("productid"));
+            product.setSearchName(row.getString("search_name"));
+            product.setProductQuantity(row.getInt("product_quantity"));
+            products.putIfAbsent(product.getSearchName(), product);
+        });
+        return products;
+    }
+
+    private void insertSearchTokens(final Collection<ProductInventory> products) {
+        List<Object[]> tokens = new ArrayList<>();
+        for (ProductInventory product : products) {
+            String name = product.getProductName() == null ? product.getSearchName() : searchName(product);
+            for (String token : ProductSearchToken.tokensOf(name)) {
+                tokens.add(new Object[] {product.getProductID(), token});
+            }
+        }
+        if (!tokens.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SEARCH_TOKEN, tokens);
+        }
+    }
+
+    private String searchName(final ProductInventory product) {
+        return product.getProductName() == null ? null : product.getProductName().toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,10 +1,82 @@
 package com.example.DepartmentalStoreCrud.repository;
 
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface ProductInventoryRepository extends JpaRepository<ProductInventory, Long> {
 
+    /**
+     * Reads products by ID and locks them until the transaction ends, in ID order so concurrent
+     * callers lock them in the same order.
+     *
+     * @param productIDs - Products' IDs
+     * @return Products found, by ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ProductInventory p WHERE p.productID IN :productIDs ORDER BY p.productID")
+    List<ProductInventory> findAllForUpdate(@Param("productIDs") Collection<Long> productIDs);
+
+    /**
+     * Searches product names for text starting at any of their words, through the name tokens,
+     * so MySQL seeks the range of idx_product_search_token instead of scanning every name.
+     * Reads one row past the page to tell whether there is a next one, without a count query.
+     *
+     * @param pattern - LIKE pattern of the lowercase text, escaped with '!' and ending with '%'
+     * @param pageable - Page to read
+     * @return Slice of matching products
+     */
+    @Query("SELECT p FROM ProductInventory p WHERE p.productID IN "
+            + "(SELECT t.productID FROM ProductSearchToken t WHERE t.token LIKE :pattern ESCAPE '!')")
+    Slice<ProductInventory> findByNameToken(@Param("pattern") String pattern, Pageable pageable);
+
+    /**
+     * Reads the products after the given id in id order, without a count query.
+     *
+     * @param productID - Last product ID already read
+     * @param pageable - Number of products to read
+     * @return Slice of products
+     */
+    Slice<ProductInventory> findByProductIDGreaterThanOrderByProductIDAsc(Long productID, Pageable pageable);
+
+    /**
+     * Streams every product in id order with a forward-only cursor.
+     * The MySQL driver only streams row by row when the fetch size is Integer.MIN_VALUE, otherwise it buffers the whole result.
+     * Must be consumed inside a transaction and closed.
+     *
+     * @return Stream of products
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READONLY, value = "true")
+    })
+    @Query("SELECT p FROM ProductInventory p ORDER BY p.productID")
+    Stream<ProductInventory> streamAllOrderByProductID();
+
+    /**
+     * Fills the lowercase name column of products stored before it existed.
+     *
+     * @return Number of products updated
+     */
+    @Modifying
+    @Query("UPDATE ProductInventory p SET p.searchName = LOWER(p.productName) "
+            + "WHERE p.searchName IS NULL AND p.productName IS NOT NULL")
+    int backfillSearchNames();
 }
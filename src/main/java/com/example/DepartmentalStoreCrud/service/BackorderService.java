@@ -1,12 +1,24 @@
 package com.example.DepartmentalStoreCrud.service;
 
 import com.example.DepartmentalStoreCrud.bean.Backorder;
+import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.dto.BackorderView;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
+import com.example.DepartmentalStoreCrud.dto.TimestampCursor;
 import com.example.DepartmentalStoreCrud.repository.BackorderRepository;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -18,16 +30,58 @@ public class BackorderService {
     private BackorderRepository backorderRepository;
 
     /**
-     * To get List of all Backorders.
+     * Autowired ProductBatchRepository
+     */
+    @Autowired
+    private ProductBatchRepository productBatchRepo;
+
+    /**
+     * Autowired ProductCache
+     */
+    @Autowired
+    private ProductCache productCache;
+
+    /**
+     * Autowired InventoryCounter
+     */
+    @Autowired
+    private InventoryCounter inventoryCounter;
+
+    /**
+     * Largest page a listing may return.
+     */
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * To get the backorders after a cursor, each fetched with its order in the same query.
+     * With the timestamp sort the cursor is the last backorder's order timestamp_id, otherwise its ID.
      *
-     * @return List of Backorders
+     * @param after - Cursor of the last backorder already read, null for the first page
+     * @param limit - Number of backorders to read, capped at the maximum page size
+     * @param sort - Whether backorders are read by ID or by order timestamp
+     * @return Page of backorders, rendered as views
      */
-    public List<Backorder> getAllBackorders() {
-        return backorderRepository.findAll();
+    public CursorPage<BackorderView> getBackorders(final String after, final Integer limit, final SortKey sort) {
+        Pageable pageable = CursorPage.pageable(limit, maxPageSize);
+        if (sort == SortKey.TIMESTAMP) {
+            Slice<Backorder> backorders;
+            if (after == null) {
+                backorders = backorderRepository.findFirstByTimestamp(pageable);
+            } else {
+                TimestampCursor cursor = TimestampCursor.parse(after);
+                backorders = backorderRepository.findAfterTimestamp(cursor.getTimestamp(), cursor.getId(), pageable);
+            }
+            return CursorPage.of(backorders.map(BackorderView::from),
+                    backorder -> TimestampCursor.format(backorder.getOrderTimestamp(), backorder.getBackorderID()));
+        }
+        Slice<Backorder> backorders = backorderRepository.findByBackorderIDGreaterThanOrderByBackorderIDAsc(
+                CursorPage.parseIdCursor(after), pageable);
+        return CursorPage.of(backorders.map(BackorderView::from), backorder -> String.valueOf(backorder.getBackorderID()));
     }
 
     /**
-     * To get Details of Backorder with Backorder's ID.
+     * To get Details of Backorder with Backorder's ID, fetched with its order.
      *
      * @param backorderId - Backorder's ID
      * @return Backorder Details
@@ -43,11 +97,21 @@ public class BackorderService {
 
     /**
      * To create a new backorder.
+     * The product id and order timestamp are copied from the order to place it in the product's queue.
      *
      * @param backorder - backorder's details
      * @return backorder's details
      */
     public Backorder createBackorder(final Backorder backorder) {
+        if (backorder.getOrder() != null) {
+            if (backorder.getProductID() == null && backorder.getOrder().getProductInventory() != null) {
+                backorder.setProductID(backorder.getOrder().getProductInventory().getProductID());
+            }
+            if (backorder.getOrderTimestamp() == null) {
+                backorder.setOrderTimestamp(backorder.getOrder().getOrderTimestamp() == null
+                        ? LocalDateTime.now() : backorder.getOrder().getOrderTimestamp());
+            }
+        }
         log.info("Backorder created");
         return backorderRepository.save(backorder);
     }
@@ -66,4 +130,61 @@ public class BackorderService {
         log.info("Backorder deleted with id-" + backorderId);
         backorderRepository.deleteById(backorderId);
     }
+
+    /**
+     * To fulfil the pending backorders of a product after it has been restocked.
+     * Backorders are served oldest first and each one takes its stock with the same
+     * guarded UPDATE used for new orders. Fulfilment stops at the first backorder the
+     * stock cannot cover, so later orders never jump the queue.
+     *
+     * @param productID - Product's ID
+     * @return Number of backorders fulfilled
+     */
+    @Transactional
+    public int fulfilBackorders(final Long productID) {
+        int fulfilled = 0;
+        for (Backorder backorder : backorderRepository.findPendingByProductID(productID)) {
+            if (!takeStock(productID, backorder.getOrder())) {
+                break;
+            }
+            backorderRepository.delete(backorder);
+            fulfilled++;
+        }
+        if (fulfilled > 0) {
+            productCache.evict(productID);
+        }
+        log.info(fulfilled + " backorders fulfilled for product id-" + productID);
+        return fulfilled;
+    }
+
+    /**
+     * To take the stock of a backordered order, from the write-behind counter when it is on.
+     *
+     * @param productID - Product's ID
+     * @param order - Backordered order
+     * @return True when the stock covered the order
+     */
+    private boolean takeStock(final Long productID, final Order order) {
+        if (inventoryCounter.isEnabled()) {
+            order.setStockPending(inventoryCounter.reserve(productID, order.getOrderQuantity()));
+            return order.isStockPending();
+        }
+        return productBatchRepo.decrementStock(productID, order.getOrderQuantity()) == 1;
+    }
+
+    /**
+     * To fill the queue columns of backorders created before they existed.
+     * Once every backorder has them, startup only pays for one index lookup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillQueueColumns() {
+        if (!backorderRepository.existsByProductIDIsNull()) {
+            return;
+        }
+        int updated = backorderRepository.backfillQueueColumns();
+        if (updated > 0) {
+            log.info("Queue columns filled for " + updated + " backorders");
+        }
+    }
 }
@@ -1,17 +1,36 @@
 package com.example.DepartmentalStoreCrud.service;
 import com.example.DepartmentalStoreCrud.bean.Customer;
-import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.CustomerOrderView;
+import com.example.DepartmentalStoreCrud.dto.Lookup;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
+import com.example.DepartmentalStoreCrud.dto.TimestampCursor;
 import com.example.DepartmentalStoreCrud.repository.CustomerRepository;
 import com.example.DepartmentalStoreCrud.repository.OrderRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.util.NoSuchElementException;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -50,14 +69,57 @@ public class CustomerService {
     private OrderRepository orderRepo;
 
     /**
-     * To get List of all Customers.
-     *
-     * @return List of Customers
+     * Autowired EntityJsonStreamer
+     */
+    @Autowired
+    private EntityJsonStreamer jsonStreamer;
+
+    /**
+     * Shared EntityManager, unwrapped to Hibernate's Session for lookups that check the second-level cache.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Largest page a listing may return.
+     */
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Largest number of IDs resolved by one lookup.
+     */
+    @Value("${lookup.max-ids:500}")
+    private int maxLookupIds;
+
+    /**
+     * To get the customers after a cursor, in ID order.
+     * Customers carry no timestamp, so only the ID sort is supported.
      *
+     * @param after - Cursor of the last customer already read, null for the first page
+     * @param limit - Number of customers to read, capped at the maximum page size
+     * @param sort - Sort key, must be ID
+     * @return Page of customers
      */
-    public List<Customer> getAllCustomers() {
+    public CursorPage<Customer> getCustomers(final String after, final Integer limit, final SortKey sort) {
+        if (sort != SortKey.ID) {
+            throw new IllegalArgumentException("Customers can only be sorted by id");
+        }
+        Slice<Customer> customers = customRepo.findByCustomerIDGreaterThanOrderByCustomerIDAsc(
+                CursorPage.parseIdCursor(after), CursorPage.pageable(limit, maxPageSize));
         log.info("Customers fetched");
-        return customRepo.findAll();
+        return CursorPage.of(customers, customer -> String.valueOf(customer.getCustomerID()));
+    }
+
+    /**
+     * To write every customer as a JSON array, read from a database cursor and detached once written.
+     *
+     * @param output - Stream to write to, left open
+     */
+    @Transactional(readOnly = true)
+    public void streamCustomers(final OutputStream output) throws IOException {
+        long streamed = jsonStreamer.writeArray(customRepo.streamAllOrderByCustomerID(), output);
+        log.info(streamed + " customers streamed");
     }
 
     /**
@@ -77,19 +139,51 @@ public class CustomerService {
     }
 
     /**
-     * To get orders placed by a customer
+     * To get many customers at once.
+     * Customers already in the second-level cache are served from it, the rest are read with a single query.
      *
-     * @param customerID - Customer's details
-     * @return Customer's Order details
+     * @param customerIDs - Customers' IDs, in the order they should be returned
+     * @return Customers found in request order, and the IDs that match no customer
      */
-    public List<Order> getOrdersByCustomer(final Long customerID) {
-        Optional<Customer> customer = customRepo.findById(customerID);
-        if (customer.isEmpty()) {
-            log.info("Customer with given id not found");
-            throw new NoSuchElementException("No customer exists with ID: " + customerID);
+    @Transactional(readOnly = true)
+    public Lookup<Customer> getCustomersByIds(final Collection<Long> customerIDs) {
+        Collection<Long> ids = Lookup.distinctIds(customerIDs, maxLookupIds);
+        List<Customer> loaded = entityManager.unwrap(Session.class).byMultipleIds(Customer.class)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .multiLoad(new ArrayList<>(ids));
+        Map<Long, Customer> customers = loaded.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Customer::getCustomerID, Function.identity()));
+        Lookup<Customer> lookup = Lookup.of(ids, customers);
+        log.info(lookup.getFound().size() + " of " + ids.size() + " customers found");
+        return lookup;
+    }
+
+    /**
+     * To get the orders placed by a customer, newest first, a page at a time.
+     * Orders are read as views in one joined query, the customer is only looked up when the first page is empty.
+     *
+     * @param customerID - Customer's ID
+     * @param after - Cursor of the last order already read, null for the first page
+     * @param limit - Number of orders to read, capped at the maximum page size
+     * @return Page of the customer's orders
+     */
+    public CursorPage<CustomerOrderView> getOrdersByCustomer(final Long customerID, final String after, final Integer limit) {
+        Pageable pageable = CursorPage.pageable(limit, maxPageSize);
+        Slice<CustomerOrderView> orders;
+        if (after == null) {
+            orders = orderRepo.findLatestViewsByCustomer(customerID, pageable);
+            if (!orders.hasContent() && !customRepo.existsById(customerID)) {
+                log.info("Customer with given id not found");
+                throw new NoSuchElementException("No customer exists with ID: " + customerID);
+            }
+        } else {
+            TimestampCursor cursor = TimestampCursor.parse(after);
+            orders = orderRepo.findViewsByCustomerBefore(customerID, cursor.getTimestamp(), cursor.getId(), pageable);
         }
         log.info("Customer's orders fetched");
-        return orderRepo.findByCustomer_CustomerID(customerID);
+        return CursorPage.of(orders, order -> TimestampCursor.format(order.getOrderTimestamp(), order.getOrderID()));
     }
 
     /**
@@ -0,0 +1,82 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of entities as one JSON array, an entity at a time.
+ * Neither the list of entities nor the serialized response is ever held in memory.
+ */
+@Component
+public class EntityJsonStreamer {
+
+    /**
+     * Autowired ObjectMapper, so streamed entities look the same as in any other response
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Shared EntityManager, each written entity is detached from it.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * To write entities that hold no other managed entity.
+     *
+     * @param entities - Entities read from a database cursor, closed once written
+     * @param output - Stream to write to, left open
+     * @return Number of entities written
+     */
+    public <T> long writeArray(final Stream<T> entities, final OutputStream output) throws IOException {
+        return writeArray(entities, output, Collections::singletonList);
+    }
+
+    /**
+     * To write entities as a JSON array, detaching each one once written.
+     *
+     * @param entities - Entities read from a database cursor, closed once written
+     * @param output - Stream to write to, left open
+     * @param loaded - Managed entities an entity brought along, itself included, all detached after it is written
+     * @return Number of entities written
+     */
+    public <T> long writeArray(final Stream<T> entities, final OutputStream output,
+                               final Function<T, Collection<?>> loaded) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try {
+            long written = 0;
+            generator.writeStartArray();
+            Iterator<T> iterator = entities.iterator();
+            while (iterator.hasNext()) {
+                T entity = iterator.next();
+                generator.writeObject(entity);
+                for (Object managed : loaded.apply(entity)) {
+                    if (managed != null) {
+                        entityManager.detach(managed);
+                    }
+                }
+                written++;
+            }
+            generator.writeEndArray();
+            return written;
+        } finally {
+            generator.close();
+            entities.close();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind stock of the products being ordered, switched on with inventory.write-behind.enabled.
+ * Orders take their stock from an in-memory counter instead of updating the product row, and are saved
+ * with stockPending set. The pending orders are taken from the product rows in batches every flush interval,
+ * so a hot product's row is written a few times a second rather than once per order. The committed order
+ * rows are what makes a reservation durable: whatever isn't flushed when the application stops is taken
+ * by the first flush after it starts. Product stock read through the API lags by up to one flush interval.
+ * The counters live in one process, so the mode is meant for a single instance.
+ */
+@Component
+@Slf4j
+public class InventoryCounter {
+
+    /**
+     * Autowired ProductBatchRepository
+     */
+    @Autowired
+    private ProductBatchRepository productBatchRepo;
+
+    /**
+     * Autowired ProductCache
+     */
+    @Autowired
+    private ProductCache productCache;
+
+    /**
+     * Autowired PlatformTransactionManager
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Whether orders use the write-behind counters.
+     */
+    @Value("${inventory.write-behind.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Largest number of pending orders taken by one flush.
+     */
+    @Value("${inventory.write-behind.flush-batch-size:5000}")
+    private int flushBatchSize;
+
+    private final Map<Long, Stock> stocks = new ConcurrentHashMap<>();
+
+    /**
+     * Reads a counter's starting stock in its own transaction, so it sees what is committed now
+     * rather than the snapshot of the order being placed.
+     */
+    private TransactionTemplate freshRead;
+
+    /**
+     * To set up the transaction used to load the counters.
+     */
+    @PostConstruct
+    public void init() {
+        freshRead = new TransactionTemplate(transactionManager);
+        freshRead.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        freshRead.setReadOnly(true);
+    }
+
+    /**
+     * To tell whether orders take their stock through the counters.
+     *
+     * @return True when write-behind is on
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * To reserve stock for an order. The reservation is given back if the surrounding transaction rolls back.
+     *
+     * @param productID - Product's ID
+     * @param quantity - Quantity ordered
+     * @return True when the stock covered the order
+     */
+    public boolean reserve(final Long productID, final int quantity) {
+        return take(productID, quantity, true);
+    }
+
+    /**
+     * To apply a stock change made outside the counters, e.g. a restock, once the change is written.
+     * It is undone if the surrounding transaction rolls back. Nothing happens while write-behind is off.
+     *
+     * @param productID - Product's ID
+     * @param delta - Change of the product's quantity
+     */
+    public void adjust(final Long productID, final int delta) {
+        if (enabled && delta != 0) {
+            take(productID, -delta, false);
+        }
+    }
+
+    /**
+     * To drop the counter of a deleted product.
+     *
+     * @param productID - Product's ID
+     */
+    public void forget(final Long productID) {
+        stocks.remove(productID);
+    }
+
+    /**
+     * To take the stock of the pending orders from their product rows in one batch.
+     * The products are evicted from both caches once the batch is committed.
+     */
+    @Scheduled(fixedDelayString = "${inventory.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, Long> taken = productBatchRepo.takePendingStock(flushBatchSize);
+        if (taken.isEmpty()) {
+            return;
+        }
+        productBatchRepo.evictCached(taken.keySet());
+        productCache.evictAll(taken.keySet());
+        log.info("Pending stock flushed for " + taken.size() + " products");
+    }
+
+    private boolean take(final Long productID, final long quantity, final boolean guarded) {
+        Stock stock = stocks.computeIfAbsent(productID, Stock::new);
+        if (!stock.isLoaded()) {
+            Long available = freshRead.execute(status -> productBatchRepo.findAvailableStock(productID));
+            stock.load(available == null ? 0 : available);
+        }
+        if (!stock.take(quantity, guarded)) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    if (status != STATUS_COMMITTED) {
+                        stock.giveBack(quantity);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Stock of one product net of its pending orders
+     */
+    private static final class Stock {
+
+        private final Long productID;
+
+        private boolean loaded;
+
+        private long available;
+
+        Stock(final Long id) {
+            this.productID = id;
+        }
+
+        synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        /**
+         * Only the first load counts: every take happens after it, so later loads would count them twice.
+         */
+        synchronized void load(final long stored) {
+            if (!loaded) {
+                available = stored;
+                loaded = true;
+                log.info("Stock counter loaded for product id-" + productID);
+            }
+        }
+
+        synchronized boolean take(final long quantity, final boolean guarded) {
+            if (guarded && available < quantity) {
+                return false;
+            }
+            available -= quantity;
+            return true;
+        }
+
+        synchronized void giveBack(final long quantity) {
+            available += quantity;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.dto.OrderPlacement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group-commit intake for new orders, switched on with orders.intake.enabled.
+ * Orders wait in a bounded queue and a few writer threads drain it in batches, placing every order of
+ * a batch in one transaction, so one commit is paid per batch instead of per order. Batches form on
+ * their own: whatever arrives while a batch commits goes into the next one. Each caller waits on its
+ * own future, completed once the batch has committed.
+ */
+@Component
+@Slf4j
+public class OrderIntakeQueue {
+
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * Autowired OrderService
+     */
+    @Autowired
+    private OrderService orderService;
+
+    /**
+     * Autowired PlatformTransactionManager
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Whether new orders go through the intake queue.
+     */
+    @Value("${orders.intake.enabled:false}")
+    private boolean enabled;
+
+    /**
+     * Number of orders allowed to wait, a full queue rejects new orders.
+     */
+    @Value("${orders.intake.capacity:1024}")
+    private int capacity;
+
+    /**
+     * Number of writer threads.
+     */
+    @Value("${orders.intake.writers:2}")
+    private int writers;
+
+    /**
+     * Largest number of orders placed in one transaction.
+     */
+    @Value("${orders.intake.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Longest a caller waits for its order's batch to commit.
+     */
+    @Value("${orders.intake.timeout-ms:30000}")
+    private long timeoutMillis;
+
+    private BlockingQueue<PendingOrder> queue;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Thread> writerThreads = new ArrayList<>();
+
+    private volatile boolean running;
+
+    /**
+     * To start the writer threads when the intake is on.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(capacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        for (int i = 0; i < writers; i++) {
+            Thread writer = new Thread(this::drain, "order-intake-" + i);
+            writer.start();
+            writerThreads.add(writer);
+        }
+        log.info("Order intake started with " + writers + " writers");
+    }
+
+    /**
+     * To stop taking orders and let the writers place the ones already queued.
+     * Orders still queued once the writers are gone are rejected, so no caller waits on them.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writerThreads) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (queue == null) {
+            return;
+        }
+        PendingOrder leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result.completeExceptionally(new TaskRejectedException("Order intake stopped before the order was placed"));
+        }
+    }
+
+    /**
+     * To tell whether new orders go through the intake queue.
+     *
+     * @return True when the intake is on
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * To queue an order for the next batch.
+     *
+     * @param order - Order Details
+     * @return Placement outcome, completed once the order's batch has committed
+     */
+    public CompletableFuture<OrderPlacement> submit(final Order order) {
+        return enqueue(order).result;
+    }
+
+    /**
+     * To queue an order and wait until its batch has committed.
+     * A failed order rethrows its own exception, as if it had been placed directly. A caller that waits
+     * longer than orders.intake.timeout-ms is rejected, the order is taken off the queue if no writer has it yet.
+     *
+     * @param order - Order Details
+     * @return Placement outcome
+     */
+    public OrderPlacement place(final Order order) {
+        PendingOrder pending = enqueue(order);
+        try {
+            return pending.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new TaskRejectedException("Order intake timed out, the order was not placed");
+            }
+            throw new TaskRejectedException("Order intake timed out, the order may still be placed");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Order could not be placed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while placing the order", e);
+        }
+    }
+
+    /**
+     * To queue an order, checking again once queued that the intake is still running, since the writers
+     * may have left in between and nothing would take the order any more.
+     *
+     * @param order - Order Details
+     * @return Queued order
+     */
+    private PendingOrder enqueue(final Order order) {
+        PendingOrder pending = new PendingOrder(order);
+        if (!running) {
+            throw new TaskRejectedException("Order intake is not taking orders");
+        }
+        if (!queue.offer(pending)) {
+            throw new TaskRejectedException("Order intake queue is full");
+        }
+        if (!running && queue.remove(pending)) {
+            throw new TaskRejectedException("Order intake is not taking orders");
+        }
+        return pending;
+    }
+
+    /**
+     * Loop of a writer thread: wait for an order, then take whatever else is queued up to the batch size.
+     */
+    private void drain() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake batch failed", e);
+                batch.forEach(pending -> pending.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * To place a batch in one transaction and complete the callers once it has committed.
+     * An order that fails on its own, e.g. for an unknown customer, fails alone. When the transaction
+     * itself fails the batch is placed again one order per transaction, so one bad order can't fail the others.
+     *
+     * @param batch - Orders of the batch
+     */
+    private void write(final List<PendingOrder> batch) {
+        List<Runnable> completions = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingOrder pending : batch) {
+                    try {
+                        OrderPlacement placement = orderService.placeOrder(pending.order);
+                        completions.add(() -> pending.result.complete(placement));
+                    } catch (RuntimeException e) {
+                        completions.add(() -> pending.result.completeExceptionally(e));
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            log.info("Batch of " + batch.size() + " orders failed, placing them one by one");
+            for (PendingOrder pending : batch) {
+                placeAlone(pending);
+            }
+            return;
+        }
+        completions.forEach(Runnable::run);
+        log.info("Batch of " + batch.size() + " orders committed");
+    }
+
+    private void placeAlone(final PendingOrder pending) {
+        try {
+            pending.result.complete(orderService.addOrderDetails(pending.order));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * An order waiting in the queue with its caller's future
+     */
+    private static final class PendingOrder {
+
+        private final Order order;
+
+        private final CompletableFuture<OrderPlacement> result = new CompletableFuture<>();
+
+        PendingOrder(final Order pendingOrder) {
+            this.order = pendingOrder;
+        }
+    }
+}
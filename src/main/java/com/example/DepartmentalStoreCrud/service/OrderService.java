@@ -4,17 +4,40 @@ import com.example.DepartmentalStoreCrud.bean.Backorder;
 import com.example.DepartmentalStoreCrud.bean.Customer;
 import com.example.DepartmentalStoreCrud.bean.Order;
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.OrderPlacement;
+import com.example.DepartmentalStoreCrud.dto.OrderView;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
+import com.example.DepartmentalStoreCrud.dto.TimestampCursor;
+import com.example.DepartmentalStoreCrud.exception.InvalidRequestException;
 import com.example.DepartmentalStoreCrud.repository.BackorderRepository;
 import com.example.DepartmentalStoreCrud.repository.CustomerRepository;
+import com.example.DepartmentalStoreCrud.repository.OrderBatchRepository;
 import com.example.DepartmentalStoreCrud.repository.OrderRepository;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
 import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -51,18 +74,89 @@ public class OrderService {
     private BackorderRepository backorderRepo;
 
     /**
-     * To get List of all orders placed by customers.
-     *
-     * @return List of Orders
+     * Autowired EntityJsonStreamer
+     */
+    @Autowired
+    private EntityJsonStreamer jsonStreamer;
+
+    /**
+     * Autowired ProductCache
+     */
+    @Autowired
+    private ProductCache productCache;
+
+    /**
+     * Autowired InventoryCounter
+     */
+    @Autowired
+    private InventoryCounter inventoryCounter;
+
+    /**
+     * Autowired OrderBatchRepository
+     */
+    @Autowired
+    private OrderBatchRepository orderBatchRepo;
+
+    /**
+     * Autowired ProductBatchRepository
+     */
+    @Autowired
+    private ProductBatchRepository productBatchRepo;
+
+    /**
+     * Largest page a listing may return.
+     */
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Largest number of orders placed by one bulk request.
+     */
+    @Value("${orders.batch.max-size:500}")
+    private int maxBatchSize;
+
+    /**
+     * To get the orders after a cursor, each fetched with its customer and product in the same query.
+     * With the timestamp sort the cursor is the last order's timestamp_id, otherwise its ID.
      *
+     * @param after - Cursor of the last order already read, null for the first page
+     * @param limit - Number of orders to read, capped at the maximum page size
+     * @param sort - Whether orders are read by ID or by timestamp
+     * @return Page of orders, rendered as views
      */
-    public List<Order> getAllOrders() {
+    public CursorPage<OrderView> getOrders(final String after, final Integer limit, final SortKey sort) {
+        Pageable pageable = CursorPage.pageable(limit, maxPageSize);
         log.info("Orders fetched");
-        return orderRepo.findAll();
+        if (sort == SortKey.TIMESTAMP) {
+            Slice<Order> orders;
+            if (after == null) {
+                orders = orderRepo.findFirstByTimestamp(pageable);
+            } else {
+                TimestampCursor cursor = TimestampCursor.parse(after);
+                orders = orderRepo.findAfterTimestamp(cursor.getTimestamp(), cursor.getId(), pageable);
+            }
+            return CursorPage.of(orders.map(OrderView::from),
+                    order -> TimestampCursor.format(order.getOrderTimestamp(), order.getOrderID()));
+        }
+        Slice<Order> orders = orderRepo.findByOrderIDGreaterThanOrderByOrderIDAsc(CursorPage.parseIdCursor(after), pageable);
+        return CursorPage.of(orders.map(OrderView::from), order -> String.valueOf(order.getOrderID()));
+    }
+
+    /**
+     * To write every order as a JSON array, read from a database cursor.
+     * Each order is detached together with its customer and product once written, so memory stays flat.
+     *
+     * @param output - Stream to write to, left open
+     */
+    @Transactional(readOnly = true)
+    public void streamOrders(final OutputStream output) throws IOException {
+        long streamed = jsonStreamer.writeArray(orderRepo.streamAllOrderByOrderID(), output,
+                order -> Arrays.asList(order, order.getCustomer(), order.getProductInventory()));
+        log.info(streamed + " orders streamed");
     }
 
     /**
-     * To get Details of Order with Order's ID.
+     * To get Details of Order with Order's ID, fetched with its customer and product.
      *
      * @param orderID - order's ID
      * @return Order Details
@@ -79,6 +173,7 @@ public class OrderService {
 
     /**
      * To get Details of customer and product for the order to be placed.
+     * The order itself is not written here, it is inserted once the stock check is done.
      *
      * @param order - Order Details
      */
@@ -92,7 +187,6 @@ public class OrderService {
         order.setCustomer(customer);
         order.setProductInventory(productInventory);
         log.info("Other entities fetched");
-        orderRepo.save(order);
     }
 
     /**
@@ -109,67 +203,225 @@ public class OrderService {
     }
 
     /**
-     * To check if the order is to be placed as a backorder or not
+     * To check if the order is to be placed as a backorder or not.
+     * The stock is taken with a guarded UPDATE, so concurrent orders for the same
+     * product can never oversell it; the row count decides order vs backorder.
+     * With write-behind on, the stock is reserved from the in-memory counter instead
+     * and the order is saved as pending, to be taken from the product row by the next flush.
      *
      * @param order - Order Details
+     * @return - Placement outcome
      */
-    private void checkIfBackorder(final Order order) {
+    private OrderPlacement checkIfBackorder(final Order order) {
         ProductInventory productInventory = order.getProductInventory();
-        if (productInventory.getProductQuantity() >= order.getOrderQuantity()) {
-            productInventory.setProductQuantity(productInventory.getProductQuantity() - order.getOrderQuantity());
-            productInventoryRepo.save(productInventory);
-            log.info("Order placed successfully");
-        } else {
+        if (inventoryCounter.isEnabled()) {
+            order.setStockPending(inventoryCounter.reserve(productInventory.getProductID(), order.getOrderQuantity()));
             Order savedOrder = orderRepo.save(order);
-            // Create a backorder for the order
-            Backorder backorder = new Backorder();
-            backorder.setOrder(savedOrder);
-            backorderService.createBackorder(backorder);
-            log.info("Given order is placed as a backorder");
-            throw new IllegalStateException("Order placed successfully as a backorder");
+            if (savedOrder.isStockPending()) {
+                log.info("Order placed successfully, stock pending");
+                return OrderPlacement.placed(savedOrder.getOrderID());
+            }
+            return placeBackorder(savedOrder);
+        }
+        Order savedOrder = orderRepo.save(order);
+        if (productBatchRepo.decrementStock(productInventory.getProductID(), order.getOrderQuantity()) == 1) {
+            productCache.evict(productInventory.getProductID());
+            log.info("Order placed successfully");
+            return OrderPlacement.placed(savedOrder.getOrderID());
         }
+        return placeBackorder(savedOrder);
     }
 
     /**
-     * To add/place an order
+     * To queue a saved order as a backorder.
+     *
+     * @param savedOrder - Saved order
+     * @return - Placement outcome
+     */
+    private OrderPlacement placeBackorder(final Order savedOrder) {
+        Backorder backorder = new Backorder();
+        backorder.setOrder(savedOrder);
+        Backorder savedBackorder = backorderService.createBackorder(backorder);
+        log.info("Given order is placed as a backorder");
+        return OrderPlacement.backordered(savedOrder.getOrderID(), savedBackorder.getBackorderID());
+    }
+
+    /**
+     * To add/place an order.
+     * Loading, pricing, the stock decrement and the order insert run in one transaction.
      *
      * @param order - Order Details
-     * @return - Order Details
+     * @return - Placement outcome
      */
-    public Order addOrderDetails(final Order order) {
+    @Transactional
+    public OrderPlacement addOrderDetails(final Order order) {
+        return placeOrder(order);
+    }
+
+    /**
+     * To place an order in the transaction of the caller, e.g. one batch of the order intake.
+     * Nothing is written when the customer or the product doesn't exist.
+     *
+     * @param order - Order Details
+     * @return - Placement outcome
+     */
+    public OrderPlacement placeOrder(final Order order) {
         fetchOtherEntities(order);
         applyDiscount(order);
-        checkIfBackorder(order);
-        return orderRepo.save(order);
+        return checkIfBackorder(order);
+    }
+
+    /**
+     * To place a list of orders in one transaction.
+     * Customers and products are each loaded with one IN query, the products locked unless write-behind is on.
+     * Orders are served in request order from what the batch hasn't already taken, then each product's stock
+     * is decremented once for the whole batch and the orders and backorders are inserted in JDBC batches.
+     * An order with an unknown customer or product, or without a positive quantity, is rejected on its own.
+     * A product whose stock can't cover what the batch took fails the whole batch, which then rolls back.
+     *
+     * @param orders - Orders Details
+     * @return - Placement outcome of each order, in request order
+     */
+    @Transactional
+    public List<OrderPlacement> addOrdersDetails(final List<Order> orders) {
+        if (orders.size() > maxBatchSize) {
+            throw new InvalidRequestException("At most " + maxBatchSize + " orders can be placed at once");
+        }
+        Set<Long> customerIDs = new HashSet<>();
+        Set<Long> productIDs = new HashSet<>();
+        for (Order order : orders) {
+            if (order.getCustomer() != null && order.getCustomer().getCustomerID() != null) {
+                customerIDs.add(order.getCustomer().getCustomerID());
+            }
+            if (order.getProductInventory() != null && order.getProductInventory().getProductID() != null) {
+                productIDs.add(order.getProductInventory().getProductID());
+            }
+        }
+        Map<Long, Customer> customers = customerRepo.findAllById(customerIDs).stream()
+                .collect(Collectors.toMap(Customer::getCustomerID, Function.identity()));
+        List<ProductInventory> loaded = inventoryCounter.isEnabled()
+                ? productInventoryRepo.findAllById(productIDs) : productInventoryRepo.findAllForUpdate(productIDs);
+        Map<Long, ProductInventory> products = loaded.stream()
+                .collect(Collectors.toMap(ProductInventory::getProductID, Function.identity()));
+
+        OrderPlacement[] placements = new OrderPlacement[orders.size()];
+        List<Order> accepted = new ArrayList<>();
+        List<Order> backordered = new ArrayList<>();
+        Map<Long, Integer> taken = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            String reason = rejectionReason(order, customers, products);
+            if (reason != null) {
+                placements[i] = OrderPlacement.rejected(reason);
+                continue;
+            }
+            ProductInventory productInventory = products.get(order.getProductInventory().getProductID());
+            order.setCustomer(customers.get(order.getCustomer().getCustomerID()));
+            order.setProductInventory(productInventory);
+            order.setOrderTimestamp(now);
+            applyDiscount(order);
+            Long productID = productInventory.getProductID();
+            boolean served;
+            if (inventoryCounter.isEnabled()) {
+                served = inventoryCounter.reserve(productID, order.getOrderQuantity());
+                order.setStockPending(served);
+            } else {
+                int alreadyTaken = taken.getOrDefault(productID, 0);
+                served = productInventory.getProductQuantity() - alreadyTaken >= order.getOrderQuantity();
+                if (served) {
+                    taken.put(productID, alreadyTaken + order.getOrderQuantity());
+                }
+            }
+            accepted.add(order);
+            if (!served) {
+                backordered.add(order);
+            }
+        }
+
+        orderBatchRepo.insertAll(accepted);
+        taken.forEach((productID, quantity) -> {
+            if (productBatchRepo.decrementStock(productID, quantity) != 1) {
+                throw new IllegalStateException("Stock of product id-" + productID + " changed while placing the orders");
+            }
+            productCache.evict(productID);
+        });
+        List<Backorder> backorders = new ArrayList<>(backordered.size());
+        for (Order order : backordered) {
+            Backorder backorder = new Backorder();
+            backorder.setOrder(order);
+            backorder.setProductID(order.getProductInventory().getProductID());
+            backorder.setOrderTimestamp(order.getOrderTimestamp());
+            backorders.add(backorder);
+        }
+        orderBatchRepo.insertBackorders(backorders);
+
+        Map<Long, Long> backorderIDs = new HashMap<>();
+        backorders.forEach(backorder -> backorderIDs.put(backorder.getOrder().getOrderID(), backorder.getBackorderID()));
+        for (int i = 0; i < orders.size(); i++) {
+            if (placements[i] == null) {
+                Long orderID = orders.get(i).getOrderID();
+                placements[i] = backorderIDs.containsKey(orderID)
+                        ? OrderPlacement.backordered(orderID, backorderIDs.get(orderID))
+                        : OrderPlacement.placed(orderID);
+            }
+        }
+        log.info(accepted.size() + " of " + orders.size() + " orders placed in bulk, " + backorders.size() + " as backorders");
+        return Arrays.asList(placements);
+    }
+
+    private String rejectionReason(final Order order, final Map<Long, Customer> customers,
+                                   final Map<Long, ProductInventory> products) {
+        if (order.getCustomer() == null || !customers.containsKey(order.getCustomer().getCustomerID())) {
+            return "No customer exists with ID: " + (order.getCustomer() == null ? null : order.getCustomer().getCustomerID());
+        }
+        if (order.getProductInventory() == null || !products.containsKey(order.getProductInventory().getProductID())) {
+            return "No product exists with ID: "
+                    + (order.getProductInventory() == null ? null : order.getProductInventory().getProductID());
+        }
+        if (order.getOrderQuantity() <= 0) {
+            return "Order quantity must be positive";
+        }
+        return null;
     }
 
     /**
      * To update an order
      *
      * @param order - Order Details
-     * @return - Order details
+     * @return - Placement outcome
      */
-    public Order updateOrderDetails(final Long orderID, final Order order) {
+    @Transactional
+    public OrderPlacement updateOrderDetails(final Long orderID, final Order order) {
         fetchOtherEntities(order);
-        checkIfBackorder(order);
+        OrderPlacement placement = checkIfBackorder(order);
         log.info("Order updated successfully");
-        return orderRepo.save(order);
+        return placement;
     }
 
     /**
      * To delete/cancel an order
+     * The order row is locked first, so the stock write-behind can't take its stock in between: an order still
+     * pending in the counter never had its stock taken from the product, so only the counter gets it back.
      *
      * @param orderID - Order's ID
      */
+    @Transactional
     public void deleteOrderDetails(final Long orderID) {
-        Order savedOrder = getOrderById(orderID);
-        ProductInventory productInventory = savedOrder.getProductInventory();
+        Order savedOrder = orderRepo.findByIdForUpdate(orderID).orElseThrow(() -> {
+            log.info("Invalid order id");
+            return new NoSuchElementException("No order exists with ID: " + orderID);
+        });
+        Long productID = savedOrder.getProductInventory().getProductID();
 
         Backorder backorder = backorderRepo.findByOrder(savedOrder);
         if (backorder != null) {
             backorderService.deleteBackorder(backorder.getBackorderID());
         } else {
-            productInventory.setProductQuantity(productInventory.getProductQuantity() + savedOrder.getOrderQuantity());
+            if (!savedOrder.isStockPending()) {
+                productBatchRepo.creditStock(productID, savedOrder.getOrderQuantity());
+            }
+            inventoryCounter.adjust(productID, savedOrder.getOrderQuantity());
         }
         log.info("Order deleted successfully with id-" + orderID);
         orderRepo.deleteById(orderID);
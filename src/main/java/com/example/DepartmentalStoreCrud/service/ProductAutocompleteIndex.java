@@ -0,0 +1,434 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.ProductSuggestion;
+import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory autocomplete index over product names and descriptions.
+ * Names are indexed by trigrams for substring matches, names and descriptions by
+ * words for prefix matches. Posting lists are sorted id arrays that are replaced,
+ * never changed in place, so lookups run without locks while writes are serialized.
+ */
+@Component
+@Slf4j
+public class ProductAutocompleteIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private static final long[] EMPTY = new long[0];
+
+    /**
+     * Best match first: lower rank, then shorter name, then name order
+     */
+    private static final Comparator<Match> MATCH_ORDER = Comparator.<Match>comparingInt(match -> match.rank)
+            .thenComparingInt(match -> match.entry.lowerName.length())
+            .thenComparing(match -> match.entry.lowerName);
+
+    /**
+     * Autowired ProductInventoryRepository
+     */
+    @Autowired
+    private ProductInventoryRepository productRepo;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<String, long[]> nameGrams = new ConcurrentHashMap<>();
+
+    private final NavigableMap<String, long[]> words = new ConcurrentSkipListMap<>();
+
+    /**
+     * To build the index from the catalog at startup, reading it in id order one batch at a time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<String, LongBuffer> gramBuffers = new HashMap<>();
+        Map<String, LongBuffer> wordBuffers = new HashMap<>();
+        entries.clear();
+        long lastID = 0;
+        List<ProductInventory> batch = productRepo.findByProductIDGreaterThanOrderByProductIDAsc(lastID, PageRequest.of(0, REBUILD_BATCH_SIZE)).getContent();
+        while (!batch.isEmpty()) {
+            for (ProductInventory product : batch) {
+                Entry entry = new Entry(product);
+                entries.put(entry.productID, entry);
+                for (String gram : entry.grams()) {
+                    gramBuffers.computeIfAbsent(gram, key -> new LongBuffer()).add(entry.productID);
+                }
+                for (String word : entry.words()) {
+                    wordBuffers.computeIfAbsent(word, key -> new LongBuffer()).add(entry.productID);
+                }
+                lastID = product.getProductID();
+            }
+            batch = productRepo.findByProductIDGreaterThanOrderByProductIDAsc(lastID, PageRequest.of(0, REBUILD_BATCH_SIZE)).getContent();
+        }
+        nameGrams.clear();
+        words.clear();
+        gramBuffers.forEach((gram, buffer) -> nameGrams.put(gram, buffer.toArray()));
+        wordBuffers.forEach((word, buffer) -> words.put(word, buffer.toArray()));
+        log.info("Autocomplete index built with " + entries.size() + " products");
+    }
+
+    /**
+     * To add a product to the index or refresh it after a change.
+     *
+     * @param product - Product's details
+     */
+    public synchronized void index(final ProductInventory product) {
+        if (product == null || product.getProductID() == null) {
+            return;
+        }
+        remove(product.getProductID());
+        Entry entry = new Entry(product);
+        entries.put(entry.productID, entry);
+        for (String gram : entry.grams()) {
+            nameGrams.compute(gram, (key, ids) -> insert(ids, entry.productID));
+        }
+        for (String word : entry.words()) {
+            words.compute(word, (key, ids) -> insert(ids, entry.productID));
+        }
+    }
+
+    /**
+     * To index a product once the surrounding transaction commits, so a rolled back write leaves no suggestion behind.
+     * Outside a transaction the product is indexed right away.
+     *
+     * @param product - Product's details
+     */
+    public void indexAfterCommit(final ProductInventory product) {
+        afterCommit(() -> index(product));
+    }
+
+    /**
+     * To index many products once the surrounding transaction commits.
+     *
+     * @param products - Products' details
+     */
+    public void indexAllAfterCommit(final Iterable<ProductInventory> products) {
+        afterCommit(() -> indexAll(products));
+    }
+
+    /**
+     * To drop a product once the surrounding transaction commits, so a rolled back delete keeps its suggestion.
+     *
+     * @param productID - Product's ID
+     */
+    public void removeAfterCommit(final Long productID) {
+        afterCommit(() -> remove(productID));
+    }
+
+    /**
+     * To add many products to the index, e.g. after an import.
+     *
+     * @param products - Products' details
+     */
+    public synchronized void indexAll(final Iterable<ProductInventory> products) {
+        for (ProductInventory product : products) {
+            index(product);
+        }
+    }
+
+    /**
+     * To drop a product from the index.
+     *
+     * @param productID - Product's ID
+     */
+    public synchronized void remove(final Long productID) {
+        Entry entry = entries.remove(productID);
+        if (entry == null) {
+            return;
+        }
+        for (String gram : entry.grams()) {
+            nameGrams.computeIfPresent(gram, (key, ids) -> delete(ids, productID));
+        }
+        for (String word : entry.words()) {
+            words.computeIfPresent(word, (key, ids) -> delete(ids, productID));
+        }
+    }
+
+    /**
+     * To get the best matching products for what has been typed so far.
+     * Name prefixes rank first, then word prefixes in the name, then other name
+     * substrings, then word prefixes in the description.
+     * Every matching posting is scored and only the best ones are kept in a heap bounded by the limit,
+     * so a strong match is never lost behind weaker ones with lower ids.
+     *
+     * @param query - Text typed so far
+     * @param limit - Maximum number of suggestions
+     * @return Suggestions, best first
+     */
+    public List<ProductSuggestion> suggest(final String query, final int limit) {
+        String text = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (text.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        PriorityQueue<Match> best = new PriorityQueue<>(size + 1, MATCH_ORDER.reversed());
+        Set<Long> scored = new HashSet<>();
+        if (text.indexOf(' ') < 0) {
+            for (long[] ids : words.subMap(text, true, text + Character.MAX_VALUE, true).values()) {
+                for (long id : ids) {
+                    score(id, text, scored, best, size);
+                }
+            }
+        }
+        if (text.length() >= GRAM_LENGTH) {
+            for (long id : intersect(grams(text))) {
+                score(id, text, scored, best, size);
+            }
+        }
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(MATCH_ORDER);
+        List<ProductSuggestion> suggestions = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            suggestions.add(new ProductSuggestion(match.entry.productID, match.entry.productName));
+        }
+        return suggestions;
+    }
+
+    /**
+     * To rank a candidate and keep it if it is among the best seen so far.
+     *
+     * @param id - Candidate's product id
+     * @param text - Typed text
+     * @param scored - Ids already ranked, so a product found through several postings is ranked once
+     * @param best - Best matches so far, worst at the head
+     * @param size - Number of matches kept
+     */
+    private void score(final long id, final String text, final Set<Long> scored, final PriorityQueue<Match> best, final int size) {
+        if (!scored.add(id)) {
+            return;
+        }
+        Entry entry = entries.get(id);
+        int rank = entry == null ? -1 : entry.rank(text);
+        if (rank < 0) {
+            return;
+        }
+        Match match = new Match(entry, rank);
+        if (best.size() < size) {
+            best.add(match);
+        } else if (MATCH_ORDER.compare(match, best.peek()) < 0) {
+            best.poll();
+            best.add(match);
+        }
+    }
+
+    /**
+     * To intersect the posting lists of the grams.
+     *
+     * @param grams - Grams of the typed text
+     * @return Ids of products whose name holds every gram, in id order
+     */
+    private long[] intersect(final Set<String> grams) {
+        List<long[]> postings = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            long[] ids = nameGrams.get(gram);
+            if (ids == null) {
+                return EMPTY;
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(ids -> ids.length));
+        long[] shortest = postings.get(0);
+        long[] result = new long[shortest.length];
+        int found = 0;
+        for (long id : shortest) {
+            if (inAll(postings, id)) {
+                result[found++] = id;
+            }
+        }
+        return Arrays.copyOf(result, found);
+    }
+
+    private static boolean inAll(final List<long[]> postings, final long id) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (Arrays.binarySearch(postings.get(i), id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void afterCommit(final Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static Set<String> grams(final String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static Set<String> tokens(final String text) {
+        Set<String> tokens = new HashSet<>();
+        for (String token : text.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static long[] insert(final long[] ids, final long id) {
+        if (ids == null) {
+            return new long[] {id};
+        }
+        int position = Arrays.binarySearch(ids, id);
+        if (position >= 0) {
+            return ids;
+        }
+        int insertAt = -position - 1;
+        long[] updated = new long[ids.length + 1];
+        System.arraycopy(ids, 0, updated, 0, insertAt);
+        updated[insertAt] = id;
+        System.arraycopy(ids, insertAt, updated, insertAt + 1, ids.length - insertAt);
+        return updated;
+    }
+
+    private static long[] delete(final long[] ids, final long id) {
+        int position = Arrays.binarySearch(ids, id);
+        if (position < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] updated = new long[ids.length - 1];
+        System.arraycopy(ids, 0, updated, 0, position);
+        System.arraycopy(ids, position + 1, updated, position, ids.length - position - 1);
+        return updated;
+    }
+
+    /**
+     * A candidate with its rank, computed once before the matches are compared
+     */
+    private static final class Match {
+
+        private final Entry entry;
+
+        private final int rank;
+
+        Match(final Entry matchedEntry, final int matchRank) {
+            this.entry = matchedEntry;
+            this.rank = matchRank;
+        }
+    }
+
+    /**
+     * Indexed view of one product
+     */
+    private static final class Entry {
+
+        private final Long productID;
+
+        private final String productName;
+
+        private final String lowerName;
+
+        private final String lowerDesc;
+
+        Entry(final ProductInventory product) {
+            this.productID = product.getProductID();
+            this.productName = product.getProductName();
+            this.lowerName = product.getProductName() == null ? "" : product.getProductName().toLowerCase(Locale.ROOT);
+            this.lowerDesc = product.getProductDesc() == null ? "" : product.getProductDesc().toLowerCase(Locale.ROOT);
+        }
+
+        Set<String> grams() {
+            return ProductAutocompleteIndex.grams(lowerName);
+        }
+
+        Set<String> words() {
+            Set<String> result = tokens(lowerName);
+            result.addAll(tokens(lowerDesc));
+            return result;
+        }
+
+        int rank(final String text) {
+            if (lowerName.startsWith(text)) {
+                return 0;
+            }
+            if (startsWord(lowerName, text)) {
+                return 1;
+            }
+            if (lowerName.contains(text)) {
+                return 2;
+            }
+            if (startsWord(lowerDesc, text)) {
+                return 3;
+            }
+            return -1;
+        }
+
+        private static boolean startsWord(final String haystack, final String text) {
+            int position = haystack.indexOf(text);
+            while (position >= 0) {
+                if (position == 0 || !Character.isLetterOrDigit(haystack.charAt(position - 1))) {
+                    return true;
+                }
+                position = haystack.indexOf(text, position + 1);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Growable id array used while rebuilding
+     */
+    private static final class LongBuffer {
+
+        private long[] values = new long[4];
+
+        private int size;
+
+        void add(final long value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through cache of products by ID, bounded by size with Caffeine's W-TinyLFU eviction.
+ * Concurrent misses for the same product wait on a single database load instead of each running the query,
+ * and the misses of a multi-get are loaded together with one IN query.
+ * Entries are detached copies, so no request's persistence context is shared through the cache.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+
+    /**
+     * Autowired ProductInventoryRepository
+     */
+    @Autowired
+    private ProductInventoryRepository productRepo;
+
+    /**
+     * Autowired MeterRegistry
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Largest number of products kept.
+     */
+    @Value("${product-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * Minutes a product is kept after it was loaded.
+     */
+    @Value("${product-cache.expire-after-write-minutes:10}")
+    private long expireAfterWriteMinutes;
+
+    private LoadingCache<Long, ProductInventory> products;
+
+    /**
+     * To build the cache and publish its hit, miss, load and eviction statistics as cache.* metrics.
+     */
+    @PostConstruct
+    public void init() {
+        products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(expireAfterWriteMinutes))
+                .recordStats()
+                .build(new CacheLoader<Long, ProductInventory>() {
+                    @Override
+                    public ProductInventory load(final Long productID) {
+                        return loadOne(productID);
+                    }
+
+                    @Override
+                    public Map<Long, ProductInventory> loadAll(final Iterable<? extends Long> productIDs) {
+                        return loadMany(productIDs);
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+    }
+
+    /**
+     * To get a product, loading it on a miss. The returned product is shared and must not be modified.
+     *
+     * @param productID - Product's ID
+     * @return Product's details, null when no product has that ID
+     */
+    public ProductInventory get(final Long productID) {
+        return products.get(productID);
+    }
+
+    /**
+     * To get many products, loading the ones not cached with a single query.
+     * The returned products are shared and must not be modified.
+     *
+     * @param productIDs - Products' IDs
+     * @return Products found, by ID, without the IDs that match no product
+     */
+    public Map<Long, ProductInventory> getAll(final Collection<Long> productIDs) {
+        return products.getAll(productIDs);
+    }
+
+    /**
+     * To drop a product after it has been changed.
+     * Inside a transaction it is dropped again once the transaction ends,
+     * so a read racing the commit can't keep the old row cached.
+     *
+     * @param productID - Product's ID
+     */
+    public void evict(final Long productID) {
+        products.invalidate(productID);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    products.invalidate(productID);
+                }
+            });
+        }
+    }
+
+    /**
+     * To drop many products after they have been changed, e.g. by an import.
+     *
+     * @param productIDs - Products' IDs
+     */
+    public void evictAll(final Collection<Long> productIDs) {
+        for (Long productID : productIDs) {
+            evict(productID);
+        }
+    }
+
+    private ProductInventory loadOne(final Long productID) {
+        log.info("Product cache miss for id-" + productID);
+        return productRepo.findById(productID).map(ProductCache::copyOf).orElse(null);
+    }
+
+    private Map<Long, ProductInventory> loadMany(final Iterable<? extends Long> productIDs) {
+        Set<Long> ids = new HashSet<>();
+        productIDs.forEach(ids::add);
+        log.info("Product cache miss for " + ids.size() + " ids");
+        return productRepo.findAllById(ids).stream()
+                .map(ProductCache::copyOf)
+                .collect(Collectors.toMap(ProductInventory::getProductID, Function.identity()));
+    }
+
+    private static ProductInventory copyOf(final ProductInventory product) {
+        ProductInventory copy = new ProductInventory();
+        copy.setProductID(product.getProductID());
+        copy.setProductName(product.getProductName());
+        copy.setProductDesc(product.getProductDesc());
+        copy.setSearchName(product.getSearchName());
+        copy.setPrice(product.getPrice());
+        copy.setProductQuantity(product.getProductQuantity());
+        return copy;
+    }
+}
@@ -1,30 +1,69 @@
 package com.example.DepartmentalStoreCrud.service;
 
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
-import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 @Service
 @Slf4j
 public class ProductExcelService {
 
     /**
-     * Autowired ProductInventoryRepository
+     * Autowired ProductImportWriter
+     */
+    @Autowired
+    private ProductImportWriter importWriter;
+
+    /**
+     * Autowired ProductImportJobs
+     */
+    @Autowired
+    private ProductImportJobs importJobs;
+
+    /**
+     * Autowired pool parsing the sheets of a workbook in parallel
      */
     @Autowired
-    private ProductInventoryRepository productRepo;
+    private ForkJoinPool importSheetPool;
+
+    /**
+     * Autowired ProductRowValidator
+     */
+    @Autowired
+    private ProductRowValidator rowValidator;
+
+    /**
+     * Number of rows persisted together.
+     */
+    @Value("${import.chunk-size:500}")
+    private int chunkSize;
 
     /**
      * To validate the file format
@@ -43,73 +82,239 @@ public class ProductExcelService {
     }
 
     /**
-     * To convert excel data to product list
+     * To stream every sheet of the workbook row by row, the sheets in parallel on the import pool.
+     * Only one chunk per sheet is held in memory, the sheets themselves are never built and the shared
+     * strings are spooled to temp files.
      *
-     * @param input - Input Stream
-     * @return List of products
+     * @param file - Workbook on disk
+     * @param job - Job recording the progress
      */
-    private List<ProductInventory> convertExcelToListOfProducts(final InputStream input) throws IOException {
-        List<ProductInventory> productList = new ArrayList<>();
-        XSSFWorkbook workbook = new XSSFWorkbook(input);
-
-        XSSFSheet sheet = workbook.getSheet("productData");
-
-        int rowNumber = 0;
-        Iterator<Row> iterator = sheet.iterator();
-
-        while (iterator.hasNext()) {
-            Row row = iterator.next();
-
-            if (rowNumber == 0) {
-                rowNumber++;
-                continue;
+    private void importProducts(final File file, final ImportJob job) throws IOException {
+        try (OPCPackage workbook = OPCPackage.open(file, PackageAccess.READ);
+             TempFileSharedStrings strings = new TempFileSharedStrings(workbook)) {
+            XSSFReader reader = new XSSFReader(workbook);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            List<ForkJoinTask<Void>> sheetImports = new ArrayList<>();
+            while (sheets.hasNext()) {
+                sheets.next().close();
+                String sheetName = sheets.getSheetName();
+                PackagePart sheet = sheets.getSheetPart();
+                sheetImports.add(importSheetPool.submit(() -> {
+                    importSheet(sheetName, sheet, strings, job);
+                    return null;
+                }));
+            }
+            if (sheetImports.isEmpty()) {
+                throw new IOException("The excel file has no sheets");
             }
+            awaitSheets(sheetImports);
+        } catch (OpenXML4JException | SAXException e) {
+            throw new IOException("Unable to read the excel file", e);
+        }
+    }
 
-            Iterator<Cell> cells = row.iterator();
-
-            int cid = 0;
-
-            ProductInventory p = new ProductInventory();
-
-            while (cells.hasNext()) {
-                Cell cell = cells.next();
-
-                switch (cid) {
-                    case 0:
-                        p.setProductName(cell.getStringCellValue());
-                        break;
-                    case 1:
-                        p.setProductDesc(cell.getStringCellValue());
-                        break;
-                    case 2:
-                        p.setPrice(cell.getNumericCellValue());
-                        break;
-                    case 3:
-                        p.setProductQuantity((int) cell.getNumericCellValue());
-                        break;
-                    default:
-                        break;
+    /**
+     * To wait for every sheet of a workbook, so a failing sheet doesn't stop the others.
+     *
+     * @param sheetImports - Running sheet imports
+     * @throws IOException the first sheet failure, once all sheets are done
+     */
+    private void awaitSheets(final List<ForkJoinTask<Void>> sheetImports) throws IOException {
+        IOException failure = null;
+        for (ForkJoinTask<Void> sheetImport : sheetImports) {
+            try {
+                sheetImport.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
                 }
-                cid++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Import interrupted", e);
             }
-            productList.add(p);
         }
-        return productList;
+        if (failure != null) {
+            throw failure;
+        }
     }
 
     /**
-     * To add new products via Excel sheet
+     * To stream one sheet and save its valid rows.
+     *
+     * @param sheetName - Name of the sheet
+     * @param sheet - Sheet part of the workbook
+     * @param strings - Shared strings of the workbook, only read here
+     * @param job - Job recording the progress
+     */
+    private void importSheet(final String sheetName, final PackagePart sheet, final SharedStrings strings,
+                             final ImportJob job) throws IOException {
+        try (InputStream input = sheet.getInputStream()) {
+            ProductRowHandler rows = new ProductRowHandler(sheetName, job);
+            XMLReader parser = SAXHelper.newXMLReader();
+            // No styles table: numeric cells come through as their raw values, not display text
+            parser.setContentHandler(new XSSFSheetXMLHandler(null, strings, rows, false));
+            parser.parse(new InputSource(input));
+            rows.flush();
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new IOException("Unable to read sheet " + sheetName, e);
+        }
+    }
+
+    /**
+     * To add new products via Excel sheet.
+     * The upload is copied to disk and imported in the background, the returned job tracks its progress.
      *
      * @param file - Input file
+     * @param mode - Whether rows are inserted or matched to existing products by name
+     * @return Queued import job
      */
-    public void addProductsViaExcel(final MultipartFile file) throws IOException {
-        if (checkExcelFormat(file)) {
-            List<ProductInventory> products = convertExcelToListOfProducts(file.getInputStream());
-            log.info("Products added via excel");
-            productRepo.saveAll(products);
-        } else {
+    public ImportJob addProductsViaExcel(final MultipartFile file, final ImportJob.Mode mode) throws IOException {
+        if (!checkExcelFormat(file)) {
             log.info("IO exception occured");
             throw new IOException("Invalid file format");
         }
+        return importJobs.submit(file, ".xlsx", mode, this::importProducts);
+    }
+
+    /**
+     * To get the progress of an import job.
+     *
+     * @param jobID - Job's ID
+     * @return Import job
+     */
+    public ImportJob getImportJob(final String jobID) {
+        return importJobs.getImportJob(jobID);
+    }
+
+    /**
+     * Maps the rows of a sheet to products and saves the valid ones a chunk at a time.
+     * The first row holds the headers and is skipped.
+     */
+    private final class ProductRowHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        /**
+         * Products waiting to be saved.
+         */
+        private final List<ProductInventory> chunk = new ArrayList<>(chunkSize);
+
+        /**
+         * Name of the sheet being read.
+         */
+        private final String sheetName;
+
+        /**
+         * Job recording the progress.
+         */
+        private final ImportJob job;
+
+        /**
+         * Product of the current row, null on the header row.
+         */
+        private ProductInventory current;
+
+        /**
+         * Whether the current row has any value at all.
+         */
+        private boolean hasValues;
+
+        /**
+         * Why the current row can't be imported, null while it can.
+         */
+        private String rejection;
+
+        /**
+         * Whether the current row has a price cell.
+         */
+        private boolean hasPrice;
+
+        /**
+         * Whether the current row has a quantity cell.
+         */
+        private boolean hasQuantity;
+
+        ProductRowHandler(final String name, final ImportJob importJob) {
+            this.sheetName = name;
+            this.job = importJob;
+        }
+
+        @Override
+        public void startRow(final int rowNum) {
+            current = rowNum == 0 ? null : new ProductInventory();
+            hasValues = false;
+            rejection = null;
+            hasPrice = false;
+            hasQuantity = false;
+        }
+
+        @Override
+        public void cell(final String cellReference, final String value, final XSSFComment comment) {
+            if (current == null || value == null || value.isEmpty()) {
+                return;
+            }
+            hasValues = true;
+            try {
+                readCell(new CellReference(cellReference).getCol(), value);
+            } catch (IllegalArgumentException e) {
+                if (rejection == null) {
+                    rejection = e.getMessage();
+                }
+            }
+        }
+
+        private void readCell(final int column, final String value) {
+            switch (column) {
+                case 0:
+                    current.setProductName(value);
+                    break;
+                case 1:
+                    current.setProductDesc(value);
+                    break;
+                case 2:
+                    hasPrice = true;
+                    current.setPrice(rowValidator.parsePrice(value));
+                    break;
+                case 3:
+                    hasQuantity = true;
+                    current.setProductQuantity(rowValidator.parseQuantity(value));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endRow(final int rowNum) {
+            if (current == null || !hasValues) {
+                return;
+            }
+            job.rowParsed();
+            String reason = rejection;
+            if (reason == null) {
+                reason = rowValidator.checkRequiredCells(job.getMode(), hasPrice, hasQuantity);
+            }
+            if (reason == null) {
+                reason = rowValidator.validate(current);
+            }
+            if (reason == null) {
+                chunk.add(current);
+            } else {
+                job.rowRejected(sheetName, rowNum + 1, reason);
+            }
+            current = null;
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * To save the products collected so far.
+         */
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            importWriter.write(chunk, job);
+            chunk.clear();
+        }
     }
 }
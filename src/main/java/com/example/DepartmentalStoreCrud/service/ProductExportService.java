@@ -0,0 +1,194 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class ProductExportService {
+
+    /**
+     * Columns of the export, named and ordered like the import columns so an export can be uploaded again.
+     */
+    private static final List<String> COLUMNS = List.of("productName", "productDesc", "price", "productQuantity", "productID");
+
+    /**
+     * Data rows per sheet, an xlsx sheet can't hold more than 1048576 rows including the header.
+     */
+    private static final int ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getLastRowIndex();
+
+    /**
+     * Rows SXSSF keeps in memory before flushing them to its temporary file.
+     */
+    private static final int ROW_WINDOW = 100;
+
+    /**
+     * Layout of a catalog export
+     */
+    public enum Format {
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(final String type) {
+            this.contentType = type;
+        }
+
+        /**
+         * @return Content type of the export
+         */
+        public String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * To read a format given in any case, such as csv.
+         *
+         * @param format - Format's name
+         * @return Export format
+         */
+        public static Format from(final String format) {
+            for (Format value : values()) {
+                if (value.name().equalsIgnoreCase(format.trim())) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export format: " + format + ", use xlsx or csv");
+        }
+    }
+
+    /**
+     * Autowired ProductInventoryRepository
+     */
+    @Autowired
+    private ProductInventoryRepository productRepo;
+
+    /**
+     * Shared EntityManager, each exported product is detached from it once written.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * To write the whole catalog to a stream.
+     * Products are read from a forward-only cursor and detached once written, so memory stays flat whatever the catalog size.
+     *
+     * @param format - Export format
+     * @param output - Stream to write to, left open
+     */
+    @Transactional(readOnly = true)
+    public void exportProducts(final Format format, final OutputStream output) throws IOException {
+        Stream<ProductInventory> products = productRepo.streamAllOrderByProductID();
+        try {
+            Iterator<ProductInventory> iterator = products.iterator();
+            long exported = format == Format.CSV ? writeCsv(iterator, output) : writeXlsx(iterator, output);
+            log.info(exported + " products exported as " + format);
+        } finally {
+            products.close();
+        }
+    }
+
+    private long writeCsv(final Iterator<ProductInventory> products, final OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(String.join(",", COLUMNS));
+        writer.write("\r\n");
+        long exported = 0;
+        while (products.hasNext()) {
+            ProductInventory product = products.next();
+            writer.write(csvField(product.getProductName()));
+            writer.write(',');
+            writer.write(csvField(product.getProductDesc()));
+            writer.write(',');
+            writer.write(BigDecimal.valueOf(product.getPrice()).toPlainString());
+            writer.write(',');
+            writer.write(String.valueOf(product.getProductQuantity()));
+            writer.write(',');
+            writer.write(String.valueOf(product.getProductID()));
+            writer.write("\r\n");
+            entityManager.detach(product);
+            exported++;
+        }
+        writer.flush();
+        return exported;
+    }
+
+    private String csvField(final String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * To write the products as a workbook, starting a new sheet whenever one is full.
+     * SXSSF keeps a small window of rows in memory and spills the rest to a compressed temporary file.
+     */
+    private long writeXlsx(final Iterator<ProductInventory> products, final OutputStream output) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = null;
+            int rowNumber = ROWS_PER_SHEET;
+            long exported = 0;
+            while (products.hasNext()) {
+                if (rowNumber == ROWS_PER_SHEET) {
+                    sheet = createSheet(workbook);
+                    rowNumber = 0;
+                }
+                ProductInventory product = products.next();
+                rowNumber++;
+                Row row = sheet.createRow(rowNumber);
+                row.createCell(0).setCellValue(product.getProductName());
+                row.createCell(1).setCellValue(product.getProductDesc());
+                row.createCell(2).setCellValue(product.getPrice());
+                row.createCell(3).setCellValue(product.getProductQuantity());
+                row.createCell(4).setCellValue(product.getProductID());
+                entityManager.detach(product);
+                exported++;
+            }
+            if (sheet == null) {
+                createSheet(workbook);
+            }
+            workbook.write(output);
+            return exported;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private Sheet createSheet(final SXSSFWorkbook workbook) {
+        int sheets = workbook.getNumberOfSheets();
+        Sheet sheet = workbook.createSheet(sheets == 0 ? "productData" : "productData" + (sheets + 1));
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            header.createCell(i).setCellValue(COLUMNS.get(i));
+        }
+        return sheet;
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class ProductFeedService {
+
+    /**
+     * Size of the read buffer over the file channel.
+     */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Longest CSV field accepted, so an unbalanced quote can't swallow the rest of the file.
+     */
+    private static final int MAX_FIELD_LENGTH = 64 * 1024;
+
+    /**
+     * Byte order mark Excel writes at the start of its "CSV UTF-8" exports, which String.trim() keeps.
+     */
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    /**
+     * Character the decoder puts in place of bytes that aren't valid UTF-8.
+     */
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+
+    /**
+     * Columns a CSV header must name.
+     */
+    private static final List<String> CSV_COLUMNS = List.of("productName", "productDesc", "price", "productQuantity");
+
+    /**
+     * Layout of a catalog feed
+     */
+    public enum Format {
+        /**
+         * Comma separated values with a header row
+         */
+        CSV,
+        /**
+         * One JSON product per line
+         */
+        NDJSON
+    }
+
+    /**
+     * Autowired ProductImportJobs
+     */
+    @Autowired
+    private ProductImportJobs importJobs;
+
+    /**
+     * Autowired ProductImportWriter
+     */
+    @Autowired
+    private ProductImportWriter importWriter;
+
+    /**
+     * Autowired ProductRowValidator
+     */
+    @Autowired
+    private ProductRowValidator rowValidator;
+
+    /**
+     * Autowired ObjectMapper
+     */
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Number of rows persisted together.
+     */
+    @Value("${import.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * To find the format of a feed from its file name, or from its content type when the name doesn't tell.
+     *
+     * @param fileName - Name of the feed, may be null
+     * @param type - Content type of the feed, may be null
+     * @return Feed format
+     */
+    private Format detectFormat(final String fileName, final String type) throws IOException {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        String contentType = String.valueOf(type).toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv") || contentType.startsWith("text/csv")) {
+            return Format.CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || contentType.startsWith("application/x-ndjson")) {
+            return Format.NDJSON;
+        }
+        log.info("IO exception occured");
+        throw new IOException("Invalid file format, expected a .csv or .ndjson feed");
+    }
+
+    /**
+     * To add products from a CSV or NDJSON feed.
+     * The upload is copied to disk and imported in the background, the returned job tracks its progress.
+     *
+     * @param file - Uploaded feed
+     * @param mode - Whether rows are inserted or matched to existing products by name
+     * @return Queued import job
+     */
+    public ImportJob addProductsViaFeed(final MultipartFile file, final ImportJob.Mode mode) throws IOException {
+        Format format = detectFormat(file.getOriginalFilename(), file.getContentType());
+        return importJobs.submit(file, "." + format.name().toLowerCase(Locale.ROOT), mode,
+                (upload, job) -> importFeed(upload, job, format));
+    }
+
+    /**
+     * To add products from a CSV or NDJSON feed sent as the raw request body.
+     * The body is streamed to disk as it arrives, so no size limit or multipart buffering applies to it.
+     *
+     * @param body - Request body
+     * @param fileName - Name of the feed, may be null
+     * @param contentType - Content type of the body
+     * @param mode - Whether rows are inserted or matched to existing products by name
+     * @return Queued import job
+     */
+    public ImportJob addProductsViaFeed(final ReadableByteChannel body, final String fileName, final String contentType,
+                                        final ImportJob.Mode mode) throws IOException {
+        Format format = detectFormat(fileName, contentType);
+        String suffix = "." + format.name().toLowerCase(Locale.ROOT);
+        return importJobs.submit(body, fileName == null ? "feed" + suffix : fileName, suffix, mode,
+                (upload, job) -> importFeed(upload, job, format));
+    }
+
+    /**
+     * To get the progress of an import job.
+     *
+     * @param jobID - Job's ID
+     * @return Import job
+     */
+    public ImportJob getImportJob(final String jobID) {
+        return importJobs.getImportJob(jobID);
+    }
+
+    /**
+     * To stream a feed from disk through a file channel, decoding it as UTF-8 and saving it a chunk at a time.
+     * Only the current record and chunk are held in memory, whatever the size of the feed.
+     * Bytes that aren't valid UTF-8 are decoded as U+FFFD and the records holding them rejected,
+     * so one bad row doesn't fail the rest of the feed.
+     *
+     * @param upload - Feed on disk
+     * @param job - Job recording the progress
+     * @param format - Feed format
+     */
+    private void importFeed(final File upload, final ImportJob job, final Format format) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try (FileChannel channel = FileChannel.open(upload.toPath(), StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(Channels.newReader(channel, decoder, -1), READ_BUFFER_SIZE)) {
+            FeedRows rows = new FeedRows(job);
+            if (format == Format.CSV) {
+                readCsv(reader, rows);
+            } else {
+                readNdjson(reader, rows);
+            }
+            rows.flush();
+        }
+    }
+
+    /**
+     * To read a CSV feed, mapping the columns by the names in its header.
+     *
+     * @param reader - Feed reader
+     * @param rows - Rows being collected
+     */
+    private void readCsv(final BufferedReader reader, final FeedRows rows) throws IOException {
+        CsvRecords records = new CsvRecords(reader);
+        List<String> header = records.next();
+        if (header == null) {
+            return;
+        }
+        if (!header.isEmpty() && header.get(0).startsWith(BYTE_ORDER_MARK)) {
+            header.set(0, header.get(0).substring(BYTE_ORDER_MARK.length()));
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        int[] positions = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < positions.length; i++) {
+            Integer position = columns.get(CSV_COLUMNS.get(i).toLowerCase(Locale.ROOT));
+            if (position == null) {
+                throw new IOException("The CSV header has no " + CSV_COLUMNS.get(i) + " column");
+            }
+            positions[i] = position;
+        }
+        for (List<String> record = records.next(); record != null; record = records.next()) {
+            long rowNumber = records.line();
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.stream().anyMatch(value -> value.indexOf(REPLACEMENT_CHARACTER) >= 0)) {
+                rows.reject(rowNumber, "row is not valid UTF-8");
+                continue;
+            }
+            ProductInventory product = new ProductInventory();
+            try {
+                product.setProductName(field(record, positions[0]));
+                product.setProductDesc(field(record, positions[1]));
+                String price = field(record, positions[2]);
+                String quantity = field(record, positions[3]);
+                product.setPrice(price == null ? 0 : rowValidator.parsePrice(price));
+                product.setProductQuantity(quantity == null ? 0 : rowValidator.parseQuantity(quantity));
+                rows.requireCells(price != null, quantity != null);
+            } catch (IllegalArgumentException e) {
+                rows.reject(rowNumber, e.getMessage());
+                continue;
+            }
+            rows.add(rowNumber, product);
+        }
+    }
+
+    private String field(final List<String> record, final int position) {
+        if (position >= record.size() || record.get(position).isEmpty()) {
+            return null;
+        }
+        return record.get(position);
+    }
+
+    /**
+     * To read a feed holding one JSON product per line.
+     *
+     * @param reader - Feed reader
+     * @param rows - Rows being collected
+     */
+    private void readNdjson(final BufferedReader reader, final FeedRows rows) throws IOException {
+        long rowNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            rowNumber++;
+            if (rowNumber == 1 && line.startsWith(BYTE_ORDER_MARK)) {
+                line = line.substring(BYTE_ORDER_MARK.length());
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (line.indexOf(REPLACEMENT_CHARACTER) >= 0) {
+                rows.reject(rowNumber, "line is not valid UTF-8");
+                continue;
+            }
+            ProductInventory product = new ProductInventory();
+            try {
+                JsonNode node = objectMapper.readTree(line);
+                if (!node.isObject()) {
+                    rows.reject(rowNumber, "line is not a JSON object");
+                    continue;
+                }
+                product.setProductName(text(node, "productName"));
+                product.setProductDesc(text(node, "productDesc"));
+                String price = text(node, "price");
+                String quantity = text(node, "productQuantity");
+                product.setPrice(price == null ? 0 : rowValidator.parsePrice(price));
+                product.setProductQuantity(quantity == null ? 0 : rowValidator.parseQuantity(quantity));
+                rows.requireCells(price != null, quantity != null);
+            } catch (JsonProcessingException e) {
+                rows.reject(rowNumber, "line is not valid JSON");
+                continue;
+            } catch (IllegalArgumentException e) {
+                rows.reject(rowNumber, e.getMessage());
+                continue;
+            }
+            rows.add(rowNumber, product);
+        }
+    }
+
+    private String text(final JsonNode node, final String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * Collects the valid rows of a feed and saves them a chunk at a time.
+     */
+    private final class FeedRows {
+
+        /**
+         * Products waiting to be saved.
+         */
+        private final List<ProductInventory> chunk = new ArrayList<>(chunkSize);
+
+        /**
+         * Job recording the progress.
+         */
+        private final ImportJob job;
+
+        FeedRows(final ImportJob importJob) {
+            this.job = importJob;
+        }
+
+        void add(final long rowNumber, final ProductInventory product) {
+            String reason = rowValidator.validate(product);
+            if (reason != null) {
+                reject(rowNumber, reason);
+                return;
+            }
+            job.rowParsed();
+            chunk.add(product);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * To fail the row when it lacks a cell the import mode needs.
+         *
+         * @throws IllegalArgumentException with the reason the row is rejected
+         */
+        void requireCells(final boolean hasPrice, final boolean hasQuantity) {
+            String reason = rowValidator.checkRequiredCells(job.getMode(), hasPrice, hasQuantity);
+            if (reason != null) {
+                throw new IllegalArgumentException(reason);
+            }
+        }
+
+        void reject(final long rowNumber, final String reason) {
+            job.rowParsed();
+            job.rowRejected(job.getFileName(), rowNumber, reason);
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            importWriter.write(chunk, job);
+            chunk.clear();
+        }
+    }
+
+    /**
+     * Reads CSV records one at a time: fields are split on commas, may be quoted, and quoted fields may hold
+     * commas, doubled quotes and line breaks. Physical lines are counted as they are read, so a rejected
+     * record is reported at the line it starts on even after multi-line fields.
+     */
+    private static final class CsvRecords {
+
+        /**
+         * Feed reader.
+         */
+        private final BufferedReader reader;
+
+        /**
+         * Line the reader is on.
+         */
+        private long currentLine = 1;
+
+        /**
+         * Line the last record read starts on.
+         */
+        private long recordLine;
+
+        CsvRecords(final BufferedReader feedReader) {
+            this.reader = feedReader;
+        }
+
+        /**
+         * @return Line the last record read starts on, 1 for the header
+         */
+        long line() {
+            return recordLine;
+        }
+
+        /**
+         * @return Fields of the next record, null at the end of the feed
+         */
+        List<String> next() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = currentLine;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (field.length() > MAX_FIELD_LENGTH) {
+                    throw new IOException("CSV field longer than " + MAX_FIELD_LENGTH + " characters, check for an unbalanced quote");
+                }
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IOException("CSV feed ends inside a quoted field");
+                    }
+                    if (c == '"') {
+                        c = reader.read();
+                        if (c != '"') {
+                            quoted = false;
+                            continue;
+                        }
+                    }
+                    if (c == '\n') {
+                        currentLine++;
+                    }
+                    field.append((char) c);
+                } else if (c == -1 || c == '\n') {
+                    if (c == '\n') {
+                        currentLine++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Queues the bulk product imports on the import executor and keeps their jobs for the status endpoints.
+ */
+@Component
+@Slf4j
+public class ProductImportJobs {
+
+    /**
+     * Bytes moved from the request body to the temporary copy per transfer.
+     */
+    private static final long TRANSFER_SIZE = 1024 * 1024;
+
+    /**
+     * Autowired import executor
+     */
+    @Autowired
+    @Qualifier("importExecutor")
+    private TaskExecutor importExecutor;
+
+    /**
+     * Import jobs by ID, kept for a while after they finish so their outcome can be read.
+     */
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Minutes a finished job stays available.
+     */
+    @Value("${import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    /**
+     * Number of rejected rows described in a job's report.
+     */
+    @Value("${import.max-rejected-rows:100}")
+    private int maxRejectedRows;
+
+    /**
+     * Reads an uploaded file that was copied to disk.
+     */
+    @FunctionalInterface
+    public interface Importer {
+
+        /**
+         * To import the products of the file.
+         *
+         * @param file - Copy of the upload
+         * @param job - Job recording the progress
+         */
+        void importProducts(File file, ImportJob job) throws IOException;
+    }
+
+    /**
+     * To queue the import of an upload.
+     * The upload is copied to disk first, so the request can end while the import runs.
+     *
+     * @param file - Uploaded file
+     * @param suffix - Suffix of the temporary copy
+     * @param mode - Whether rows are inserted or matched to existing products by name
+     * @param importer - Reader of the file
+     * @return Queued import job
+     */
+    public ImportJob submit(final MultipartFile file, final String suffix, final ImportJob.Mode mode,
+                            final Importer importer) throws IOException {
+        purgeFinishedJobs();
+        File upload = Files.createTempFile("products", suffix).toFile();
+        ImportJob job = new ImportJob(file.getOriginalFilename(), mode, maxRejectedRows);
+        try {
+            file.transferTo(upload);
+        } catch (IOException e) {
+            deleteQuietly(upload);
+            throw e;
+        }
+        return queue(job, upload, importer);
+    }
+
+    /**
+     * To queue the import of a request body.
+     * The body is streamed straight into the temporary copy, without being buffered as a multipart part first.
+     *
+     * @param body - Request body
+     * @param fileName - Name the job reports the feed under
+     * @param suffix - Suffix of the temporary copy
+     * @param mode - Whether rows are inserted or matched to existing products by name
+     * @param importer - Reader of the file
+     * @return Queued import job
+     */
+    public ImportJob submit(final ReadableByteChannel body, final String fileName, final String suffix,
+                            final ImportJob.Mode mode, final Importer importer) throws IOException {
+        purgeFinishedJobs();
+        File upload = Files.createTempFile("products", suffix).toFile();
+        ImportJob job = new ImportJob(fileName, mode, maxRejectedRows);
+        try (FileChannel copy = FileChannel.open(upload.toPath(), StandardOpenOption.WRITE)) {
+            long position = 0;
+            for (long copied = copy.transferFrom(body, position, TRANSFER_SIZE); copied > 0;
+                 copied = copy.transferFrom(body, position, TRANSFER_SIZE)) {
+                position += copied;
+            }
+        } catch (IOException e) {
+            deleteQuietly(upload);
+            throw e;
+        }
+        return queue(job, upload, importer);
+    }
+
+    /**
+     * To hand a copied upload to the import executor.
+     *
+     * @param job - Job recording the progress
+     * @param upload - Copy of the upload
+     * @param importer - Reader of the file
+     * @return Queued import job
+     */
+    private ImportJob queue(final ImportJob job, final File upload, final Importer importer) {
+        try {
+            jobs.put(job.getJobID(), job);
+            importExecutor.execute(() -> run(job, upload, importer));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getJobID());
+            deleteQuietly(upload);
+            throw e;
+        }
+        log.info("Import " + job.getJobID() + " queued");
+        return job;
+    }
+
+    /**
+     * To get the progress of an import job.
+     *
+     * @param jobID - Job's ID
+     * @return Import job
+     */
+    public ImportJob getImportJob(final String jobID) {
+        ImportJob job = jobs.get(jobID);
+        if (job == null) {
+            log.info("Invalid import job id");
+            throw new NoSuchElementException("No import job exists with ID: " + jobID);
+        }
+        return job;
+    }
+
+    /**
+     * To run a queued import on the import executor.
+     * The copy of the upload is removed once the job is over, whatever its outcome.
+     *
+     * @param job - Job to run
+     * @param upload - Copy of the uploaded file
+     * @param importer - Reader of the file
+     */
+    private void run(final ImportJob job, final File upload, final Importer importer) {
+        job.start();
+        try {
+            importer.importProducts(upload, job);
+            job.complete();
+            log.info("Import " + job.getJobID() + " done, " + job.getRowsPersisted() + " products saved");
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+            log.error("Import " + job.getJobID() + " failed", e);
+        } finally {
+            deleteQuietly(upload);
+        }
+    }
+
+    /**
+     * To forget jobs that finished longer ago than the retention period.
+     */
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    /**
+     * To remove a temporary file, logging instead of failing when it can't be removed.
+     *
+     * @param file - File to remove
+     */
+    private void deleteQuietly(final File file) {
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            log.warn("Unable to delete " + file, e);
+        }
+    }
+}
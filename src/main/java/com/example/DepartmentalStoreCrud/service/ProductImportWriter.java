@@ -0,0 +1,148 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Saves the chunks of validated rows produced by the bulk imports.
+ */
+@Component
+@Slf4j
+public class ProductImportWriter {
+
+    /**
+     * Autowired ProductBatchRepository
+     */
+    @Autowired
+    private ProductBatchRepository productBatchRepo;
+
+    /**
+     * Autowired ProductAutocompleteIndex
+     */
+    @Autowired
+    private ProductAutocompleteIndex autocompleteIndex;
+
+    /**
+     * Autowired BackorderService
+     */
+    @Autowired
+    private BackorderService backorderService;
+
+    /**
+     * Autowired ProductCache
+     */
+    @Autowired
+    private ProductCache productCache;
+
+    /**
+     * Autowired InventoryCounter
+     */
+    @Autowired
+    private InventoryCounter inventoryCounter;
+
+    /**
+     * Autowired PlatformTransactionManager
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Held from the name lookup to the commit of an upsert chunk. Sheets and jobs upsert concurrently and
+     * search_name isn't unique, so two chunks carrying the same new name would otherwise both insert it.
+     */
+    private final Object upsertLock = new Object();
+
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * To set up the transaction an upsert chunk runs in.
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * To save a chunk of products the way the job asks for.
+     * Only the products actually written count as persisted, rows merged into another row of the chunk don't.
+     *
+     * @param products - Valid products of the chunk
+     * @param job - Job recording the progress
+     */
+    public void write(final List<ProductInventory> products, final ImportJob job) {
+        if (job.getMode() == ImportJob.Mode.UPSERT) {
+            job.rowsPersisted(upsert(products, job));
+        } else {
+            autocompleteIndex.indexAll(productBatchRepo.insertAll(products));
+            job.rowsPersisted(products.size());
+        }
+    }
+
+    /**
+     * To apply a chunk as a delta: rows are matched to stored products by lowercase name in one lookup,
+     * matches are updated and the rest inserted, each as one batch. A name repeated in the chunk keeps its last row.
+     * The lookup and the writes run in one transaction under the upsert lock, so concurrent chunks can't both
+     * insert a new name. Updated products are dropped from the product cache, and those whose stock went up
+     * have their backorders fulfilled once the chunk is committed.
+     *
+     * @param products - Valid products of the chunk
+     * @param job - Job recording the progress
+     * @return Number of products written
+     */
+    private int upsert(final List<ProductInventory> products, final ImportJob job) {
+        Map<String, ProductInventory> rowsByName = new LinkedHashMap<>();
+        for (ProductInventory product : products) {
+            rowsByName.put(product.getProductName().toLowerCase(Locale.ROOT), product);
+        }
+        List<ProductInventory> inserts = new ArrayList<>();
+        List<ProductInventory> updates = new ArrayList<>();
+        List<Long> restocked = new ArrayList<>();
+        synchronized (upsertLock) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, ProductInventory> stored = productBatchRepo.findBySearchNames(rowsByName.keySet());
+                Map<Long, Integer> stockChanges = new LinkedHashMap<>();
+                rowsByName.forEach((searchName, product) -> {
+                    ProductInventory existing = stored.get(searchName);
+                    if (existing == null) {
+                        inserts.add(product);
+                        return;
+                    }
+                    product.setProductID(existing.getProductID());
+                    updates.add(product);
+                    stockChanges.put(existing.getProductID(), product.getProductQuantity() - existing.getProductQuantity());
+                    if (product.getProductQuantity() > existing.getProductQuantity()) {
+                        restocked.add(existing.getProductID());
+                    }
+                });
+                productBatchRepo.updateAll(updates);
+                productCache.evictAll(updates.stream().map(ProductInventory::getProductID).collect(Collectors.toList()));
+                stockChanges.forEach(inventoryCounter::adjust);
+                productBatchRepo.insertAll(inserts);
+            });
+        }
+        autocompleteIndex.indexAll(updates);
+        autocompleteIndex.indexAll(inserts);
+        job.rowsUpdated(updates.size());
+        for (Long productID : restocked) {
+            int fulfilled = backorderService.fulfilBackorders(productID);
+            if (fulfilled > 0) {
+                log.info(fulfilled + " backorders fulfilled for restocked product " + productID);
+            }
+        }
+        return rowsByName.size();
+    }
+}
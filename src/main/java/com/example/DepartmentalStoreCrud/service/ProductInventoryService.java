@@ -1,28 +1,41 @@
 package com.example.DepartmentalStoreCrud.service;
 
-import com.example.DepartmentalStoreCrud.bean.Backorder;
-import com.example.DepartmentalStoreCrud.bean.Order;
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
-import com.example.DepartmentalStoreCrud.repository.BackorderRepository;
-import com.example.DepartmentalStoreCrud.repository.OrderRepository;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.Lookup;
+import com.example.DepartmentalStoreCrud.dto.ProductSuggestion;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
 import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ProductInventoryService {
 
+    /**
+     * Number of products tokenized per round when filling missing name tokens.
+     */
+    private static final int TOKEN_BACKFILL_CHUNK = 1000;
+
     /**
      * Autowired ProductInventoryRepository
      */
@@ -30,16 +43,52 @@ public class ProductInventoryService {
     private ProductInventoryRepository productRepo;
 
     /**
-     * Autowired BackorderRepository
+     * Autowired BackorderService
+     */
+    @Autowired
+    private BackorderService backorderService;
+
+    /**
+     * Autowired ProductAutocompleteIndex
+     */
+    @Autowired
+    private ProductAutocompleteIndex autocompleteIndex;
+
+    /**
+     * Autowired EntityJsonStreamer
+     */
+    @Autowired
+    private EntityJsonStreamer jsonStreamer;
+
+    /**
+     * Autowired ProductCache
      */
     @Autowired
-    private BackorderRepository backorderRepo;
+    private ProductCache productCache;
 
     /**
-     * Autowired OrderRepository
+     * Autowired InventoryCounter
      */
     @Autowired
-    private OrderRepository orderRepo;
+    private InventoryCounter inventoryCounter;
+
+    /**
+     * Autowired ProductBatchRepository
+     */
+    @Autowired
+    private ProductBatchRepository productBatchRepo;
+
+    /**
+     * Largest page a listing may return.
+     */
+    @Value("${pagination.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * Largest number of IDs resolved by one lookup.
+     */
+    @Value("${lookup.max-ids:500}")
+    private int maxLookupIds;
 
     /**
      * To get List of all Products.
@@ -67,19 +116,59 @@ public class ProductInventoryService {
     }
 
     /**
-     * To get Details of Product with Product's ID.
+     * To get the products after a product ID, in ID order.
+     * The page is read with WHERE productID > ? ORDER BY productID LIMIT n and no count query,
+     * so deep pages cost the same as the first.
+     *
+     * @param after - Last product ID already read, 0 for the first page
+     * @param limit - Number of products to read, capped at the maximum page size
+     * @return Page of products
+     */
+    public CursorPage<ProductInventory> getProductsAfter(final Long after, final Integer limit) {
+        Slice<ProductInventory> products = productRepo.findByProductIDGreaterThanOrderByProductIDAsc(after, CursorPage.pageable(limit, maxPageSize));
+        log.info("Products fetched after id-" + after);
+        return CursorPage.of(products, product -> String.valueOf(product.getProductID()));
+    }
+
+    /**
+     * To write every product as a JSON array, read from a database cursor and detached once written.
+     *
+     * @param output - Stream to write to, left open
+     */
+    @Transactional(readOnly = true)
+    public void streamProducts(final OutputStream output) throws IOException {
+        long streamed = jsonStreamer.writeArray(productRepo.streamAllOrderByProductID(), output);
+        log.info(streamed + " products streamed");
+    }
+
+    /**
+     * To get Details of Product with Product's ID, served from the product cache.
      *
      * @param productID - Product's ID
      * @return Product Details
      */
     public ProductInventory getProductById(final Long productID) {
-        Optional<ProductInventory> productInventory = productRepo.findById(productID);
-        if (productInventory.isEmpty()) {
+        ProductInventory productInventory = productCache.get(productID);
+        if (productInventory == null) {
             log.info("Invalid product id");
             throw new NoSuchElementException("No product exists with ID: " + productID);
         }
         log.info("Product found with id-" + productID);
-        return productInventory.get();
+        return productInventory;
+    }
+
+    /**
+     * To get many products at once, served from the product cache.
+     * The ones not cached are loaded together with one query.
+     *
+     * @param productIDs - Products' IDs, in the order they should be returned
+     * @return Products found in request order, and the IDs that match no product
+     */
+    public Lookup<ProductInventory> getProductsByIds(final Collection<Long> productIDs) {
+        Collection<Long> ids = Lookup.distinctIds(productIDs, maxLookupIds);
+        Lookup<ProductInventory> lookup = Lookup.of(ids, productCache.getAll(ids));
+        log.info(lookup.getFound().size() + " of " + ids.size() + " products found");
+        return lookup;
     }
 
     /**
@@ -88,21 +177,27 @@ public class ProductInventoryService {
      * @param productInventory - Product's details
      * @return Product's Details
      */
+    @Transactional
     public ProductInventory addProductDetails(final ProductInventory productInventory) {
         if (productInventory.getProductName() == null || productInventory.getProductDesc() == null) {
             log.info("Product details are missing");
             throw new IllegalArgumentException("Enter valid product data");
         }
         log.info("Product added successfully");
-        return productRepo.save(productInventory);
+        ProductInventory savedProduct = productRepo.save(productInventory);
+        productBatchRepo.replaceSearchTokens(List.of(savedProduct));
+        autocompleteIndex.indexAfterCommit(savedProduct);
+        return savedProduct;
     }
 
     /**
      * To update Product details.
+     * When the update raises the stock, the product's pending backorders are fulfilled right away.
      *
      * @param productInventory - Product's details
      * @return Product's Details
      */
+    @Transactional
     public ProductInventory updateProductDetails(final Long productID, final ProductInventory productInventory) {
         Optional<ProductInventory> productInventoryOptional = productRepo.findById(productID);
         if (productInventoryOptional.isEmpty()) {
@@ -110,52 +205,21 @@ public class ProductInventoryService {
             throw new NoSuchElementException("No product exists with ID: " + productID);
         }
         ProductInventory existingProduct = productInventoryOptional.get();
+        int previousQuantity = existingProduct.getProductQuantity();
         existingProduct.setProductDesc(productInventory.getProductDesc() == null ? existingProduct.getProductDesc() : productInventory.getProductDesc());
         existingProduct.setProductName(productInventory.getProductName() == null ? existingProduct.getProductName() : productInventory.getProductName());
         existingProduct.setPrice(productInventory.getPrice());
         existingProduct.setProductQuantity(productInventory.getProductQuantity());
         log.info("Product updated successfully with id-" + productID);
-        return productRepo.save(existingProduct);
-    }
-
-    /**
-     * To remove the backorders for a product
-     *
-     * @param newQuantity - Product's updated quantity
-     * @param existingProduct - Product details
-     */
-    private void removeBackorders(final int newQuantity, final ProductInventory existingProduct) {
-        if (newQuantity > 0) {
-            List<Order> orders = orderRepo.findByProductInventory(existingProduct);
-            if (!orders.isEmpty()) {
-                for (Order order : orders) {
-                    // Remove the backorder if quantity becomes sufficient
-                    if (existingProduct.getProductQuantity() >= order.getOrderQuantity()) {
-                        Backorder backorder = backorderRepo.findByOrder(order);
-                        if (backorder != null) {
-                                // Remove the backorder associated with the order
-                                backorderRepo.delete(backorder);
-                                existingProduct.setProductQuantity(existingProduct.getProductQuantity() - order.getOrderQuantity());
-                        }
-                }
-            }
-            productRepo.save(existingProduct);
+        ProductInventory savedProduct = productRepo.saveAndFlush(existingProduct);
+        productBatchRepo.replaceSearchTokens(List.of(savedProduct));
+        productCache.evict(productID);
+        inventoryCounter.adjust(productID, savedProduct.getProductQuantity() - previousQuantity);
+        autocompleteIndex.indexAfterCommit(savedProduct);
+        if (savedProduct.getProductQuantity() > previousQuantity) {
+            backorderService.fulfilBackorders(productID);
         }
-      }
-    }
-
-    /**
-     * Cronjob to run the removeBackorders function every midnight
-     */
-    @Scheduled(cron = "0 0 0 * * *")   // Runs every midnight
-    private void deleteBackordersCronJob() {
-        // Get all existing products
-        List<ProductInventory> products = productRepo.findAll();
-        for (ProductInventory existingProduct : products) {
-            int quantity = existingProduct.getProductQuantity();
-            removeBackorders(quantity, existingProduct);
-        }
-        log.info("Cronjob successful");
+        return savedProduct;
     }
 
     /**
@@ -163,6 +227,7 @@ public class ProductInventoryService {
      *
      * @param productID - Product's ID
      */
+    @Transactional
     public void deleteProductDetails(final Long productID) {
         Optional<ProductInventory> productInventory = productRepo.findById(productID);
         if (productInventory.isEmpty()) {
@@ -171,19 +236,54 @@ public class ProductInventoryService {
         }
         log.info("Product deleted with id-" + productID);
         productRepo.deleteById(productID);
+        productBatchRepo.deleteSearchTokens(List.of(productID));
+        productCache.evict(productID);
+        inventoryCounter.forget(productID);
+        autocompleteIndex.removeAfterCommit(productID);
     }
 
     /**
-     * To search for a product by its name.
+     * To search for products whose name contains the given text at the start of one of its words,
+     * e.g. "chair" finds "Office chair". The match runs in the database against the indexed name tokens,
+     * one page at a time in id order.
      *
-     * @param productName - Name of the product
-     * @return List of products
+     * @param productName - Text to find in the product name
+     * @param pageNumber - Page number to read
+     * @param pageSize - Size of the page, capped at the maximum page size
+     * @return Slice of products
      */
-    public List<ProductInventory> searchProducts(final String productName) {
-        List<ProductInventory> products = productRepo.findAll();
+    public Slice<ProductInventory> searchProducts(final String productName, final Integer pageNumber, final Integer pageSize) {
+        Pageable pageable = PageRequest.of(pageNumber, Math.max(1, Math.min(pageSize, maxPageSize)), Sort.by("productID"));
+        String text = productName.trim().toLowerCase(Locale.ROOT);
+        Slice<ProductInventory> products = productRepo.findByNameToken(text.replaceAll("[!%_]", "!$0") + "%", pageable);
         log.info("Search successful");
-        return products.stream()
-                .filter(product -> product.getProductName().toLowerCase().contains(productName.toLowerCase()))
-                .collect(Collectors.toList());
+        return products;
+    }
+
+    /**
+     * To suggest products while the name is being typed, served from the in-memory index.
+     *
+     * @param query - Text typed so far
+     * @param limit - Maximum number of suggestions
+     * @return Suggestions, best first
+     */
+    public List<ProductSuggestion> autocompleteProducts(final String query, final Integer limit) {
+        return autocompleteIndex.suggest(query, limit);
+    }
+
+    /**
+     * To fill the search column and the name tokens of products stored before they existed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillSearchNames() {
+        int updated = productRepo.backfillSearchNames();
+        if (updated > 0) {
+            log.info("Search names filled for " + updated + " products");
+        }
+        int tokenized = productBatchRepo.fillMissingSearchTokens(TOKEN_BACKFILL_CHUNK);
+        if (tokenized > 0) {
+            log.info("Search tokens filled for " + tokenized + " products");
+        }
     }
 }
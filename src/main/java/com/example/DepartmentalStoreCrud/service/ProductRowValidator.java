@@ -0,0 +1,92 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks the products read by the bulk imports one row at a time, so a bad row is reported instead of failing the upload.
+ */
+@Component
+public class ProductRowValidator {
+
+    /**
+     * To read a price cell.
+     *
+     * @param value - Cell text
+     * @return Price
+     * @throws IllegalArgumentException when the text is not a number
+     */
+    public double parsePrice(final String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number: " + value);
+        }
+    }
+
+    /**
+     * To read a quantity cell, which may hold a whole number written as a decimal such as 10.0.
+     *
+     * @param value - Cell text
+     * @return Quantity
+     * @throws IllegalArgumentException when the text is not a whole number
+     */
+    public int parseQuantity(final String value) {
+        double quantity;
+        try {
+            quantity = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("productQuantity is not a number: " + value);
+        }
+        if (quantity != Math.rint(quantity) || quantity > Integer.MAX_VALUE || quantity < Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("productQuantity is not a whole number: " + value);
+        }
+        return (int) quantity;
+    }
+
+    /**
+     * To check that a row has the cells its import mode needs.
+     * An upsert overwrites the stored price and stock, so a blank cell there would silently set them to 0.
+     * An insert reads blank cells as 0.
+     *
+     * @param mode - Import mode
+     * @param hasPrice - Whether the row has a price cell
+     * @param hasQuantity - Whether the row has a quantity cell
+     * @return Why the row can't be imported, null when it can
+     */
+    public String checkRequiredCells(final ImportJob.Mode mode, final boolean hasPrice, final boolean hasQuantity) {
+        if (mode != ImportJob.Mode.UPSERT) {
+            return null;
+        }
+        if (!hasPrice) {
+            return "price is missing";
+        }
+        if (!hasQuantity) {
+            return "productQuantity is missing";
+        }
+        return null;
+    }
+
+    /**
+     * To check a product read from an import.
+     *
+     * @param product - Product of the row
+     * @return Why the row can't be imported, null when it can
+     */
+    public String validate(final ProductInventory product) {
+        if (product.getProductName() == null || product.getProductName().isBlank()) {
+            return "productName is missing";
+        }
+        if (product.getProductDesc() == null || product.getProductDesc().isBlank()) {
+            return "productDesc is missing";
+        }
+        if (!Double.isFinite(product.getPrice()) || product.getPrice() < 0) {
+            return "price must not be negative";
+        }
+        if (product.getProductQuantity() < 0) {
+            return "productQuantity must not be negative";
+        }
+        return null;
+    }
+}
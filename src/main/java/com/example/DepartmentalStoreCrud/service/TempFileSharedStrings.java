@@ -0,0 +1,218 @@
+package com.example.DepartmentalStoreCrud.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ooxml.util.SAXHelper;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.RichTextString;
+import org.apache.poi.xssf.model.SharedStrings;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Shared strings of a workbook kept in temp files instead of on the heap.
+ * The strings are written one after the other to a data file and their start offsets to an index file,
+ * so memory stays flat however many distinct names and descriptions a workbook has. Lookups are
+ * positional reads, safe for the sheets read in parallel. Closing deletes the files.
+ */
+@Slf4j
+public final class TempFileSharedStrings implements SharedStrings, Closeable {
+
+    private static final int OFFSET_BYTES = Long.BYTES;
+
+    private final Path dataFile;
+
+    private final Path indexFile;
+
+    private FileChannel data;
+
+    private FileChannel index;
+
+    private int count;
+
+    private int uniqueCount;
+
+    /**
+     * To copy the shared strings of a workbook to temp files.
+     *
+     * @param workbook - Opened workbook
+     * @throws IOException when the strings can't be read or written
+     * @throws SAXException when the shared strings part is malformed
+     */
+    public TempFileSharedStrings(final OPCPackage workbook) throws IOException, SAXException {
+        dataFile = Files.createTempFile("shared-strings", ".dat");
+        indexFile = Files.createTempFile("shared-strings", ".idx");
+        try {
+            List<PackagePart> parts = workbook.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            try (DataOutputStream dataOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(dataFile)));
+                 DataOutputStream indexOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+                Spooler spooler = new Spooler(dataOut, indexOut);
+                if (!parts.isEmpty()) {
+                    try (InputStream input = parts.get(0).getInputStream()) {
+                        XMLReader parser = SAXHelper.newXMLReader();
+                        parser.setContentHandler(spooler);
+                        parser.parse(new InputSource(input));
+                    }
+                }
+                indexOut.writeLong(spooler.written);
+            }
+            data = FileChannel.open(dataFile, StandardOpenOption.READ);
+            index = FileChannel.open(indexFile, StandardOpenOption.READ);
+        } catch (IOException | SAXException | RuntimeException e) {
+            close();
+            throw e;
+        } catch (ParserConfigurationException e) {
+            close();
+            throw new IOException("Unable to read the shared strings", e);
+        }
+    }
+
+    @Override
+    public RichTextString getItemAt(final int idx) {
+        if (idx < 0 || idx >= uniqueCount) {
+            throw new IndexOutOfBoundsException("No shared string at " + idx);
+        }
+        try {
+            ByteBuffer offsets = ByteBuffer.allocate(2 * OFFSET_BYTES);
+            readFully(index, offsets, (long) idx * OFFSET_BYTES);
+            long start = offsets.getLong(0);
+            ByteBuffer text = ByteBuffer.allocate((int) (offsets.getLong(OFFSET_BYTES) - start));
+            readFully(data, text, start);
+            return new XSSFRichTextString(new String(text.array(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public int getUniqueCount() {
+        return uniqueCount;
+    }
+
+    /**
+     * To close and delete the temp files.
+     */
+    @Override
+    public void close() {
+        closeQuietly(data);
+        closeQuietly(index);
+        deleteQuietly(dataFile);
+        deleteQuietly(indexFile);
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        long at = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, at);
+            if (read < 0) {
+                throw new IOException("Shared strings file ended early");
+            }
+            at += read;
+        }
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            log.warn("Unable to close shared strings file", e);
+        }
+    }
+
+    private static void deleteQuietly(final Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Unable to delete " + file, e);
+        }
+    }
+
+    /**
+     * Writes each shared string item to the data file as it is parsed, with its offset in the index file
+     */
+    private final class Spooler extends DefaultHandler {
+
+        private final DataOutputStream dataOut;
+
+        private final DataOutputStream indexOut;
+
+        private final StringBuilder item = new StringBuilder();
+
+        private long written;
+
+        private boolean inItem;
+
+        private boolean inText;
+
+        Spooler(final DataOutputStream dataStream, final DataOutputStream indexStream) {
+            this.dataOut = dataStream;
+            this.indexOut = indexStream;
+        }
+
+        @Override
+        public void startElement(final String uri, final String localName, final String qName, final Attributes attributes) {
+            if ("sst".equals(localName)) {
+                String total = attributes.getValue("count");
+                count = total == null ? 0 : Integer.parseInt(total);
+            } else if ("si".equals(localName)) {
+                item.setLength(0);
+                inItem = true;
+            } else if ("t".equals(localName)) {
+                inText = inItem;
+            }
+        }
+
+        @Override
+        public void endElement(final String uri, final String localName, final String qName) throws SAXException {
+            if ("t".equals(localName)) {
+                inText = false;
+            } else if ("si".equals(localName)) {
+                inItem = false;
+                try {
+                    byte[] bytes = item.toString().getBytes(StandardCharsets.UTF_8);
+                    indexOut.writeLong(written);
+                    dataOut.write(bytes);
+                    written += bytes.length;
+                } catch (IOException e) {
+                    throw new SAXException(e);
+                }
+                uniqueCount++;
+            }
+        }
+
+        @Override
+        public void characters(final char[] ch, final int start, final int length) {
+            if (inText) {
+                item.append(ch, start, length);
+            }
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class BackorderControllerIntegrationTests {
         mockMvc.perform(MockMvcRequestBuilders.get("/backorders"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()", is(backorderList.size())));
+                .andExpect(jsonPath("$.content.size()", is(backorderList.size())));
     }
 
     @Test
@@ -39,7 +39,7 @@ public class CustomerControllerIntegrationTests {
         mockMvc.perform(MockMvcRequestBuilders.get("/customers"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()", is(customerRepository.findAll().size())));
+                .andExpect(jsonPath("$.content.size()", is(customerRepository.findAll().size())));
     }
 
     @Test
@@ -71,7 +71,8 @@ public class CustomerControllerIntegrationTests {
         customerRepository.saveAll(customerList);
         mockMvc.perform(MockMvcRequestBuilders.get("/customers/{customerID}/orders", 1L))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content.size()", is(0)));
     }
 
     //negative customer not found
@@ -57,7 +57,7 @@ public class OrderControllerIntegrationTests {
         mockMvc.perform(MockMvcRequestBuilders.get("/orders"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()", is(orderList.size())));
+                .andExpect(jsonPath("$.content.size()", is(orderList.size())));
     }
 
     @Test
@@ -102,7 +102,7 @@ public class OrderControllerIntegrationTests {
                         .content(orderData))
                 .andExpect(status().isCreated())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(content().string("Order placed successfully."));
+                .andExpect(jsonPath("$.status", is("PLACED")));
     }
 
     @Test
@@ -118,7 +118,8 @@ public class OrderControllerIntegrationTests {
         mockMvc.perform(MockMvcRequestBuilders.post("/orders")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(orderData))
-                .andExpect(status().isCreated());
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status", is("BACKORDERED")));
     }
 
     @Test
@@ -16,9 +16,13 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -88,6 +92,36 @@ public class BackorderRepositoryTests {
         assertEquals(10.0, backorderByOrder.getOrder().getDiscount());
     }
 
+    @Test
+    void testFindPendingByProductID_OldestFirst() {
+        ProductInventory product = productInventoryRepository.save(createProduct(2L, "Product 2", "Description 2", 100, 0));
+        Customer customer = customerRepository.save(createCustomer(2L, "Gurjot", "abc@gmail.com", "+919765412345", "123 Nangal"));
+        Order newer = orderRepository.save(createOrder(2L, product, customer, LocalDateTime.now(), 1, 0.0));
+        Order older = orderRepository.save(createOrder(3L, product, customer, LocalDateTime.now(), 2, 0.0));
+
+        Backorder newerBackorder = createBackorder(2L, newer);
+        newerBackorder.setProductID(product.getProductID());
+        newerBackorder.setOrderTimestamp(LocalDateTime.now());
+        backorderRepository.save(newerBackorder);
+        Backorder olderBackorder = createBackorder(3L, older);
+        olderBackorder.setProductID(product.getProductID());
+        olderBackorder.setOrderTimestamp(LocalDateTime.now().minusHours(1));
+        backorderRepository.save(olderBackorder);
+
+        List<Backorder> queue = backorderRepository.findPendingByProductID(product.getProductID());
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.get(0).getOrder().getOrderQuantity());
+        assertEquals(1, queue.get(1).getOrder().getOrderQuantity());
+    }
+
+    @Test
+    void testBackfillQueueColumns() {
+        assertTrue(backorderRepository.existsByProductIDIsNull());
+        assertEquals(1, backorderRepository.backfillQueueColumns());
+        assertFalse(backorderRepository.existsByProductIDIsNull());
+        assertEquals(0, backorderRepository.backfillQueueColumns());
+    }
+
     private ProductInventory createProduct(Long id, String name, String desc, double price, int quantity) {
         ProductInventory product = new ProductInventory();
         product.setProductID(id);
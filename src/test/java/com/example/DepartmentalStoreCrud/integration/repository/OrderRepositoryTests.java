@@ -3,6 +3,7 @@ package com.example.DepartmentalStoreCrud.integration.repository;
 import com.example.DepartmentalStoreCrud.bean.Customer;
 import com.example.DepartmentalStoreCrud.bean.Order;
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.CustomerOrderView;
 import com.example.DepartmentalStoreCrud.repository.CustomerRepository;
 import com.example.DepartmentalStoreCrud.repository.OrderRepository;
 import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
@@ -11,12 +12,16 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -88,6 +93,25 @@ public class OrderRepositoryTests {
         assertEquals(1, orderList.size());
     }
 
+    @Test
+    void testFindOrderViewsByCustomer_NewestFirst() {
+        Customer customer = customerRepository.findById(1L).get();
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
+        orderRepository.save(createOrder(2L, productInventory, customer, timestamp, 2, 0.0));
+        orderRepository.save(createOrder(3L, productInventory, customer, timestamp, 3, 0.0));
+
+        Slice<CustomerOrderView> latest = orderRepository.findLatestViewsByCustomer(1L, PageRequest.of(0, 2));
+        assertEquals(2, latest.getNumberOfElements());
+        assertTrue(latest.hasNext());
+        assertEquals("Product 1", latest.getContent().get(0).getProductName());
+        CustomerOrderView last = latest.getContent().get(1);
+
+        Slice<CustomerOrderView> older = orderRepository.findViewsByCustomerBefore(1L, last.getOrderTimestamp(),
+                last.getOrderID(), PageRequest.of(0, 2));
+        assertEquals(1, older.getNumberOfElements());
+        assertFalse(older.hasNext());
+    }
+
     @Test
     void testFindOrdersByProduct() {
         List<Order> orderList = orderRepository.findByProductInventory(productInventory);
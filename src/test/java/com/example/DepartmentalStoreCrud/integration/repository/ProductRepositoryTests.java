@@ -1,26 +1,44 @@
 package com.example.DepartmentalStoreCrud.integration.repository;
 
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
 import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
+import javax.persistence.Cache;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @ActiveProfiles("test")
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductBatchRepository.class)
 public class ProductRepositoryTests {
     @Autowired
     private ProductInventoryRepository productInventoryRepository;
 
+    @Autowired
+    private ProductBatchRepository productBatchRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     void testGetAllProducts() {
         List<ProductInventory> productList = new ArrayList<>();
@@ -65,6 +83,94 @@ public class ProductRepositoryTests {
         assertEquals(1, productInventoryRepository.findAll().size());
     }
 
+    @Test
+    void testDecrementStock() {
+        ProductInventory product = productInventoryRepository.save(createProduct(1L, "Product 1", "Description 1", 10.5, 5));
+        assertEquals(1, productBatchRepository.decrementStock(product.getProductID(), 3));
+        assertEquals(0, productBatchRepository.decrementStock(product.getProductID(), 3));
+        entityManager.clear();
+        assertEquals(2, productInventoryRepository.findById(product.getProductID()).get().getProductQuantity());
+    }
+
+    @Test
+    void testCreditStock() {
+        ProductInventory product = productInventoryRepository.save(createProduct(1L, "Product 1", "Description 1", 10.5, 5));
+        assertEquals(1, productBatchRepository.creditStock(product.getProductID(), 3));
+        assertEquals(0, productBatchRepository.creditStock(product.getProductID() + 1, 3));
+        entityManager.clear();
+        assertEquals(8, productInventoryRepository.findById(product.getProductID()).get().getProductQuantity());
+    }
+
+    @Test
+    void testDecrementStockKeepsOtherProductsCached() {
+        ProductInventory ordered = productInventoryRepository.save(createProduct(null, "Product 1", "Description 1", 10.5, 5));
+        ProductInventory other = productInventoryRepository.save(createProduct(null, "Product 2", "Description 2", 15.0, 5));
+        entityManager.flush();
+        entityManager.clear();
+        productInventoryRepository.findById(ordered.getProductID());
+        productInventoryRepository.findById(other.getProductID());
+        entityManager.clear();
+
+        assertEquals(1, productBatchRepository.decrementStock(ordered.getProductID(), 3));
+        Cache cache = entityManager.getEntityManager().getEntityManagerFactory().getCache();
+        assertFalse(cache.contains(ProductInventory.class, ordered.getProductID()));
+        assertTrue(cache.contains(ProductInventory.class, other.getProductID()));
+
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertEquals(5, productInventoryRepository.findById(other.getProductID()).get().getProductQuantity());
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(2, productInventoryRepository.findById(ordered.getProductID()).get().getProductQuantity());
+        assertEquals(1, statistics.getSecondLevelCacheMissCount());
+    }
+
+    @Test
+    void testFindByNameToken() {
+        List<ProductInventory> productList = new ArrayList<>();
+        productList.add(createProduct(null, "Office chair", "Description 1", 10.5, 100));
+        productList.add(createProduct(null, "Gaming chair", "Description 2", 15.0, 50));
+        productList.add(createProduct(null, "Armchair", "Description 3", 20.0, 10));
+        productBatchRepository.insertAll(productList);
+
+        List<ProductInventory> found = productInventoryRepository.findByNameToken("chair%",
+                PageRequest.of(0, 10, Sort.by("productID"))).getContent();
+        assertEquals(2, found.size());
+        assertEquals("Office chair", found.get(0).getProductName());
+        assertEquals("Gaming chair", found.get(1).getProductName());
+        assertEquals(1, productInventoryRepository.findByNameToken("office ch%", PageRequest.of(0, 10)).getContent().size());
+    }
+
+    @Test
+    void testBatchInsert() {
+        List<ProductInventory> productList = new ArrayList<>();
+        productList.add(createProduct(null, "Product 1", "Description 1", 10.5, 100));
+        productList.add(createProduct(null, "Product 2", "Description 2", 15.0, 50));
+        productBatchRepository.insertAll(productList);
+        assertNotNull(productList.get(0).getProductID());
+        assertNotNull(productList.get(1).getProductID());
+        ProductInventory foundProduct = productInventoryRepository.findById(productList.get(1).getProductID()).get();
+        assertEquals("Product 2", foundProduct.getProductName());
+        assertEquals("product 2", foundProduct.getSearchName());
+        assertEquals(50, foundProduct.getProductQuantity());
+    }
+
+    @Test
+    void testBatchUpdateBySearchName() {
+        ProductInventory product = productInventoryRepository.save(createProduct(null, "Product 1", "Description 1", 10.5, 100));
+        entityManager.flush();
+        Map<String, ProductInventory> found = productBatchRepository.findBySearchNames(List.of("product 1", "product 2"));
+        assertEquals(1, found.size());
+        assertEquals(product.getProductID(), found.get("product 1").getProductID());
+        ProductInventory update = createProduct(product.getProductID(), "Product 1", "New description", 12.0, 150);
+        productBatchRepository.updateAll(List.of(update));
+        entityManager.clear();
+        ProductInventory foundProduct = productInventoryRepository.findById(product.getProductID()).get();
+        assertEquals("New description", foundProduct.getProductDesc());
+        assertEquals(12.0, foundProduct.getPrice());
+        assertEquals(150, foundProduct.getProductQuantity());
+    }
+
     private ProductInventory createProduct(Long id, String name, String desc, double price, int quantity) {
         ProductInventory product = new ProductInventory();
         product.setProductID(id);
@@ -1,6 +1,7 @@
 package com.example.DepartmentalStoreCrud.integration.service;
 
 import com.example.DepartmentalStoreCrud.bean.Backorder;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
 import com.example.DepartmentalStoreCrud.repository.BackorderRepository;
 import com.example.DepartmentalStoreCrud.service.BackorderService;
 import org.junit.jupiter.api.Test;
@@ -28,12 +29,12 @@ public class BackorderServiceIntegrationTests {
     private BackorderService backorderService;
 
     @Test
-    void testGetAllBackorders() {
+    void testGetBackorders() {
         List<Backorder> backorderList = new ArrayList<>();
         backorderList.add(createBackorder(1L));
         backorderList.add(createBackorder(2L));
         backorderRepository.saveAll(backorderList);
-        assertEquals(2, backorderService.getAllBackorders().size());
+        assertEquals(2, backorderService.getBackorders(null, 20, SortKey.ID).getContent().size());
     }
 
     @Test
@@ -1,6 +1,7 @@
 package com.example.DepartmentalStoreCrud.integration.service;
 
 import com.example.DepartmentalStoreCrud.bean.Customer;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
 import com.example.DepartmentalStoreCrud.repository.CustomerRepository;
 import com.example.DepartmentalStoreCrud.service.CustomerService;
 import org.junit.jupiter.api.Test;
@@ -25,14 +26,14 @@ public class CustomerServiceIntegrationTests {
     private CustomerRepository customerRepository;
 
     @Test
-    void testGetAllCustomers() {
+    void testGetCustomers() {
         List<Customer> customerList = new ArrayList<>();
         customerList.add(createCustomer(1L,"Gurjot", "gurjot@gmail.com",
                         "+919765412345", "123 Nangal"));
         customerList.add(createCustomer(2L,"Gurjot", "gurjot@gmail.com",
                         "+919765412345", "123 Nangal"));
         customerRepository.saveAll(customerList);
-        assertEquals(2,customerService.getAllCustomers().size());
+        assertEquals(2,customerService.getCustomers(null, 20, SortKey.ID).getContent().size());
     }
 
     @Test
@@ -110,7 +111,7 @@ public class CustomerServiceIntegrationTests {
         customerRepository.save(createCustomer(1L,"Gurjot", "gurjot@gmail.com",
                 "+919765412345", "123 Nangal"));
         customerService.deleteCustomerDetails(1L);
-        assertEquals(0, customerService.getAllCustomers().size());
+        assertEquals(0, customerService.getCustomers(null, 20, SortKey.ID).getContent().size());
     }
 
     //negative customer not found
@@ -3,6 +3,8 @@ package com.example.DepartmentalStoreCrud.integration.service;
 import com.example.DepartmentalStoreCrud.bean.Customer;
 import com.example.DepartmentalStoreCrud.bean.Order;
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.OrderPlacement;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
 import com.example.DepartmentalStoreCrud.repository.CustomerRepository;
 import com.example.DepartmentalStoreCrud.repository.OrderRepository;
 import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
@@ -35,7 +37,7 @@ public class OrderServiceIntegrationTests {
     private OrderService orderService;
 
     @Test
-    void testGetAllOrders() {
+    void testGetOrders() {
         ProductInventory product1 = createProduct(1L, "Product 1", "Description 1", 10, 100);
         ProductInventory product2 = createProduct(2L,"Product2", "description 2", 10, 100);
         productInventoryRepository.saveAll(List.of(product1, product2));
@@ -46,7 +48,7 @@ public class OrderServiceIntegrationTests {
         Order order1 = createOrder(1L, product1, customer, LocalDateTime.now(), 5, 0.0);
         Order order2 = createOrder(1L, product2, customer, LocalDateTime.now(), 5, 0.0);
         orderRepository.saveAll(List.of(order1, order2));
-        assertEquals(2, orderService.getAllOrders().size());
+        assertEquals(2, orderService.getOrders(null, 20, SortKey.ID).getContent().size());
     }
 
     @Test
@@ -83,7 +85,9 @@ public class OrderServiceIntegrationTests {
         customerRepository.save(customer);
 
         Order order = createOrder(1L, product, customer, LocalDateTime.now(), 5, 10.0);
-        Order placeOrder = orderService.addOrderDetails(order);
+        OrderPlacement placement = orderService.addOrderDetails(order);
+        assertEquals(OrderPlacement.Status.PLACED, placement.getStatus());
+        Order placeOrder = orderService.getOrderById(placement.getOrderID());
         assertNotNull(placeOrder);
         assertEquals(1L, placeOrder.getProductInventory().getProductID());
         assertEquals(1L, placeOrder.getCustomer().getCustomerID());
@@ -103,7 +107,9 @@ public class OrderServiceIntegrationTests {
         customerRepository.save(customer);
 
         Order order = createOrder(1L, product, customer, LocalDateTime.now(), 10, 10.0);
-        assertThrows(IllegalStateException.class, () -> orderService.addOrderDetails(order));
+        OrderPlacement placement = orderService.addOrderDetails(order);
+        assertEquals(OrderPlacement.Status.BACKORDERED, placement.getStatus());
+        assertNotNull(placement.getBackorderID());
     }
 
     @Test
@@ -117,7 +123,7 @@ public class OrderServiceIntegrationTests {
         Order order = createOrder(1L, product, customer, LocalDateTime.now(), 10, 10.0);
         orderRepository.save(order);
         orderService.deleteOrderDetails(1L);
-        assertEquals(0, orderService.getAllOrders().size());
+        assertEquals(0, orderService.getOrders(null, 20, SortKey.ID).getContent().size());
     }
 
     //negative order not found
@@ -112,7 +112,7 @@ public class ProductServiceIntegrationTests {
         productList.add(createProduct(2L, "Product 2", "Description 2", 15.0, 50));
         productInventoryRepository.saveAll(productList);
 
-        List<ProductInventory> searchResults = productInventoryService.searchProducts("Product 1");
+        List<ProductInventory> searchResults = productInventoryService.searchProducts("Product 1", 0, 20).getContent();
         assertEquals(1, searchResults.size());
         assertEquals("Product 1", searchResults.get(0).getProductName());
     }
@@ -125,7 +125,7 @@ public class ProductServiceIntegrationTests {
         productList.add(createProduct(2L, "Product 2", "Description 2", 15.0, 50));
         productInventoryRepository.saveAll(productList);
 
-        List<ProductInventory> searchResults = productInventoryService.searchProducts("Product 3");
+        List<ProductInventory> searchResults = productInventoryService.searchProducts("Product 3", 0, 20).getContent();
         assertEquals(0, searchResults.size());
     }
 
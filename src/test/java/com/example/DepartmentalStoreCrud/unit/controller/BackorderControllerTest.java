@@ -2,6 +2,9 @@ package com.example.DepartmentalStoreCrud.unit.controller;
 
 import com.example.DepartmentalStoreCrud.bean.Backorder;
 import com.example.DepartmentalStoreCrud.controller.BackorderController;
+import com.example.DepartmentalStoreCrud.dto.BackorderView;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
 import com.example.DepartmentalStoreCrud.repository.BackorderRepository;
 import com.example.DepartmentalStoreCrud.service.BackorderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -64,18 +67,20 @@ public class BackorderControllerTest {
     }
 
     @Test
-    void getAllBackordersTest() throws Exception {
-        List<Backorder> backorders = new ArrayList<>();
-        backorders.add(createBackorder());
+    void getBackordersTest() throws Exception {
+        List<BackorderView> backorders = new ArrayList<>();
+        backorders.add(BackorderView.from(createBackorder()));
 
-        when(backorderService.getAllBackorders()).thenReturn(backorders);
+        when(backorderService.getBackorders("5", 20, SortKey.ID)).thenReturn(new CursorPage<>(backorders, false, null));
 
-        mockMvc.perform(get("/backorders"))
+        mockMvc.perform(get("/backorders")
+                        .param("after", "5"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()", is(backorders.size())));
+                .andExpect(jsonPath("$.content.size()", is(backorders.size())))
+                .andExpect(jsonPath("$.hasNext", is(false)));
 
-        verify(backorderService, times(1)).getAllBackorders();
+        verify(backorderService, times(1)).getBackorders("5", 20, SortKey.ID);
     }
 
     //positive case - valid backorder id
@@ -1,9 +1,13 @@
 package com.example.DepartmentalStoreCrud.unit.controller;
 
 import com.example.DepartmentalStoreCrud.bean.Customer;
-import com.example.DepartmentalStoreCrud.bean.Order;
-import com.example.DepartmentalStoreCrud.bean.ProductInventory;
 import com.example.DepartmentalStoreCrud.controller.CustomerController;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.CustomerOrderView;
+import com.example.DepartmentalStoreCrud.dto.Lookup;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
+import com.example.DepartmentalStoreCrud.exception.GlobalExceptionHandler;
+import com.example.DepartmentalStoreCrud.exception.InvalidRequestException;
 import com.example.DepartmentalStoreCrud.service.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -49,20 +53,45 @@ public class CustomerControllerTest {
 
     @BeforeEach
     void init() {
-        mockMvc = MockMvcBuilders.standaloneSetup(customerController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(customerController).setControllerAdvice(new GlobalExceptionHandler()).build();
     }
 
     @Test
-    void getAllCustomersTest() throws Exception {
+    void getCustomersTest() throws Exception {
         List<Customer> customers = new ArrayList<>();
         customers.add(createCustomer(1L));
         customers.add(createCustomer(2L));
-        when(customerService.getAllCustomers()).thenReturn(customers);
+        when(customerService.getCustomers(null, 20, SortKey.ID)).thenReturn(new CursorPage<>(customers, true, "2"));
         this.mockMvc.perform(get("/customers"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()", is(customers.size())));
-        verify(customerService, times(1)).getAllCustomers();
+                .andExpect(jsonPath("$.content.size()", is(customers.size())))
+                .andExpect(jsonPath("$.nextCursor", is("2")));
+        verify(customerService, times(1)).getCustomers(null, 20, SortKey.ID);
+    }
+
+    @Test
+    void lookupCustomersTest() throws Exception {
+        when(customerService.getCustomersByIds(List.of(2L, 7L, 1L)))
+                .thenReturn(new Lookup<>(List.of(createCustomer(2L), createCustomer(1L)), List.of(7L)));
+        this.mockMvc.perform(post("/customers/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2, 7, 1]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].customerID", is(2)))
+                .andExpect(jsonPath("$.found[1].customerID", is(1)))
+                .andExpect(jsonPath("$.missing[0]", is(7)));
+    }
+
+    @Test
+    void lookupCustomersTooManyTest() throws Exception {
+        when(customerService.getCustomersByIds(List.of(2L, 7L, 1L)))
+                .thenThrow(new InvalidRequestException("At most 2 IDs can be looked up at once"));
+        this.mockMvc.perform(post("/customers/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2, 7, 1]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("At most 2 IDs can be looked up at once")));
     }
 
     @Test
@@ -93,39 +122,29 @@ public class CustomerControllerTest {
     @Test
     void getOrdersByCustomerTest() throws Exception {
         Long customerId = 1L;
-        Customer customer = createCustomer(customerId);
-        List<Order> orders = new ArrayList<>();
-        orders.add(createOrder(1L));
-        orders.add(createOrder(2L));
-        when(customerService.getOrdersByCustomer(anyLong())).thenReturn(orders);
-
-        this.mockMvc.perform(get("/customers/{customerID}/orders", customerId))
+        List<CustomerOrderView> orders = new ArrayList<>();
+        orders.add(createOrderView(2L));
+        orders.add(createOrderView(1L));
+        CursorPage<CustomerOrderView> page = new CursorPage<>(orders, true, "2024-05-01T10:15:30_1");
+        when(customerService.getOrdersByCustomer(customerId, null, 2)).thenReturn(page);
+
+        this.mockMvc.perform(get("/customers/{customerID}/orders", customerId)
+                        .param("limit", "2"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$[0].orderID").exists())
-                .andExpect(jsonPath("$[0].orderTimestamp").exists())
-                .andExpect(jsonPath("$[0].orderQuantity").exists())
-                .andExpect(jsonPath("$[0].discount").exists())
-                .andExpect(jsonPath("$[0].discountedPrice").exists())
-                .andExpect(jsonPath("$[0].customer.customerID").exists())
-                .andExpect(jsonPath("$[0].customer.fullName").exists())
-                .andExpect(jsonPath("$[0].productInventory.productID").exists())
-                .andExpect(jsonPath("$[0].productInventory.productName").exists())
-                .andExpect(jsonPath("$[0].productInventory.productQuantity").exists())
-                .andExpect(jsonPath("$[0].productInventory.price").exists())
-                .andExpect(jsonPath("$[1].orderID").exists())
-                .andExpect(jsonPath("$[1].orderTimestamp").exists())
-                .andExpect(jsonPath("$[1].orderQuantity").exists())
-                .andExpect(jsonPath("$[1].discount").exists())
-                .andExpect(jsonPath("$[1].discountedPrice").exists())
-                .andExpect(jsonPath("$[1].customer.customerID").exists())
-                .andExpect(jsonPath("$[1].customer.fullName").exists())
-                .andExpect(jsonPath("$[1].productInventory.productID").exists())
-                .andExpect(jsonPath("$[1].productInventory.productName").exists())
-                .andExpect(jsonPath("$[1].productInventory.productQuantity").exists())
-                .andExpect(jsonPath("$[1].productInventory.price").exists());
-
-        verify(customerService, times(1)).getOrdersByCustomer(customerId);
+                .andExpect(jsonPath("$.content[0].orderID", is(2)))
+                .andExpect(jsonPath("$.content[0].orderTimestamp").exists())
+                .andExpect(jsonPath("$.content[0].orderQuantity").exists())
+                .andExpect(jsonPath("$.content[0].discount").exists())
+                .andExpect(jsonPath("$.content[0].discountedPrice").exists())
+                .andExpect(jsonPath("$.content[0].totalPrice").exists())
+                .andExpect(jsonPath("$.content[0].productID").exists())
+                .andExpect(jsonPath("$.content[0].productName").exists())
+                .andExpect(jsonPath("$.content[0].customer").doesNotExist())
+                .andExpect(jsonPath("$.content[1].orderID", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is("2024-05-01T10:15:30_1")));
+
+        verify(customerService, times(1)).getOrdersByCustomer(customerId, null, 2);
     }
 
     @Test
@@ -204,25 +223,8 @@ public class CustomerControllerTest {
         return customer;
     }
 
-    private Order createOrder(Long orderId) {
-        Order order = new Order();
-        order.setOrderID(orderId);
-        order.setOrderTimestamp(LocalDateTime.now());
-        order.setOrderQuantity(2);
-        order.setDiscount(10.0);
-        order.setDiscountedPrice(90.0);
-
-        Customer customer = new Customer();
-        customer.setCustomerID(1L);
-        customer.setFullName("John Doe");
-        order.setCustomer(customer);
-
-        ProductInventory productInventory = new ProductInventory();
-        productInventory.setProductID(1L);
-        productInventory.setProductName("Product 1");
-        productInventory.setProductQuantity(5);
-        productInventory.setPrice(100.0);
-        order.setProductInventory(productInventory);
-        return order;
+    private CustomerOrderView createOrderView(Long orderId) {
+        return new CustomerOrderView(orderId, 1L, "Product 1", 2, 10.0, 90.0, 180.0,
+                LocalDateTime.of(2024, 5, 1, 10, 15, 30));
     }
 }
@@ -4,6 +4,13 @@ import com.example.DepartmentalStoreCrud.bean.Customer;
 import com.example.DepartmentalStoreCrud.bean.Order;
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
 import com.example.DepartmentalStoreCrud.controller.OrderController;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.OrderPlacement;
+import com.example.DepartmentalStoreCrud.dto.OrderView;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
+import com.example.DepartmentalStoreCrud.exception.GlobalExceptionHandler;
+import com.example.DepartmentalStoreCrud.exception.InvalidRequestException;
+import com.example.DepartmentalStoreCrud.service.OrderIntakeQueue;
 import com.example.DepartmentalStoreCrud.service.OrderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,13 +23,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +49,9 @@ public class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderIntakeQueue orderIntake;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -46,23 +60,49 @@ public class OrderControllerTest {
 
     @BeforeEach
     void init() {
-        mockMvc = MockMvcBuilders.standaloneSetup(orderController).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(orderController).setControllerAdvice(new GlobalExceptionHandler()).build();
     }
 
     @Test
-    public void getAllOrdersTest() throws Exception {
-        List<Order> orders = new ArrayList<>();
-        orders.add(createOrder(1L));
-        orders.add(createOrder(2L));
+    public void getOrdersTest() throws Exception {
+        List<OrderView> orders = new ArrayList<>();
+        orders.add(OrderView.from(createOrder(1L)));
+        orders.add(OrderView.from(createOrder(2L)));
+        String cursor = "2024-05-01T10:15:30_2";
 
-        when(orderService.getAllOrders()).thenReturn(orders);
+        when(orderService.getOrders(null, 2, SortKey.TIMESTAMP)).thenReturn(new CursorPage<>(orders, true, cursor));
 
-        this.mockMvc.perform(get("/orders"))
+        this.mockMvc.perform(get("/orders")
+                        .param("limit", "2")
+                        .param("sort", "timestamp"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$.size()", is(orders.size())));
+                .andExpect(jsonPath("$.content.size()", is(orders.size())))
+                .andExpect(jsonPath("$.content[0].customer.customerID").exists())
+                .andExpect(jsonPath("$.content[0].productInventory.productID").exists())
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is(cursor)));
 
-        verify(orderService, times(1)).getAllOrders();
+        verify(orderService, times(1)).getOrders(null, 2, SortKey.TIMESTAMP);
+    }
+
+    @Test
+    public void streamOrdersTest() throws Exception {
+        doAnswer(invocation -> {
+            invocation.getArgument(0, OutputStream.class).write("[{\"orderID\":1}]".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(orderService).streamOrders(any(OutputStream.class));
+
+        MvcResult result = this.mockMvc.perform(get("/orders/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].orderID", is(1)));
+
+        verify(orderService, times(1)).streamOrders(any(OutputStream.class));
     }
 
     @Test
@@ -71,7 +111,10 @@ public class OrderControllerTest {
         when(orderService.getOrderById(anyLong())).thenReturn(order);
         this.mockMvc.perform(get("/orders/{orderID}", 1L))
                 .andExpect(status().isOk())
-                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.orderID", is(1)))
+                .andExpect(jsonPath("$.customer.fullName").exists())
+                .andExpect(jsonPath("$.productInventory.price").exists());
         verify(orderService, times(1)).getOrderById(1L);
     }
 
@@ -89,20 +132,81 @@ public class OrderControllerTest {
     @Test
     public void addOrderDetailsTest() throws Exception {
         Order order = createOrder(1L);
+        when(orderService.addOrderDetails(order)).thenReturn(OrderPlacement.placed(1L));
 
         this.mockMvc.perform(post("/orders")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(order)))
                 .andExpect(status().isCreated())
-                .andExpect(content().string("Order placed successfully."));
+                .andExpect(jsonPath("$.status", is("PLACED")))
+                .andExpect(jsonPath("$.orderID", is(1)));
+
+        verify(orderService, times(1)).addOrderDetails(order);
+    }
+
+    @Test
+    public void addOrderDetailsTest_Backordered() throws Exception {
+        Order order = createOrder(1L);
+        when(orderService.addOrderDetails(order)).thenReturn(OrderPlacement.backordered(1L, 2L));
+
+        this.mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.status", is("BACKORDERED")))
+                .andExpect(jsonPath("$.backorderID", is(2)));
 
         verify(orderService, times(1)).addOrderDetails(order);
     }
 
+    @Test
+    public void addOrderDetailsTest_ThroughIntake() throws Exception {
+        Order order = createOrder(1L);
+        when(orderIntake.isEnabled()).thenReturn(true);
+        when(orderIntake.place(order)).thenReturn(OrderPlacement.placed(1L));
+
+        this.mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(order)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.orderID", is(1)));
+
+        verify(orderService, never()).addOrderDetails(any(Order.class));
+    }
+
+    @Test
+    public void addOrdersDetailsTest() throws Exception {
+        List<Order> orders = List.of(createOrder(1L), createOrder(2L));
+        when(orderService.addOrdersDetails(anyList())).thenReturn(List.of(OrderPlacement.placed(1L),
+                OrderPlacement.rejected("No customer exists with ID: 9")));
+
+        this.mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(orders)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status", is("PLACED")))
+                .andExpect(jsonPath("$[0].reason").doesNotExist())
+                .andExpect(jsonPath("$[1].status", is("REJECTED")))
+                .andExpect(jsonPath("$[1].reason", is("No customer exists with ID: 9")));
+    }
+
+    @Test
+    public void addOrdersDetailsTooManyTest() throws Exception {
+        when(orderService.addOrdersDetails(anyList()))
+                .thenThrow(new InvalidRequestException("At most 1 orders can be placed at once"));
+
+        this.mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createOrder(1L), createOrder(2L)))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("At most 1 orders can be placed at once")));
+    }
+
     @Test
     public void updateOrderDetailsTest() throws Exception {
         Long orderId = 1L;
         Order order = createOrder(orderId);
+        when(orderService.updateOrderDetails(eq(orderId), any(Order.class))).thenReturn(OrderPlacement.placed(orderId));
 
         this.mockMvc.perform(put("/orders/{orderID}", orderId)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -2,6 +2,9 @@ package com.example.DepartmentalStoreCrud.unit.controller;
 
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
 import com.example.DepartmentalStoreCrud.controller.ProductInventoryController;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.Lookup;
+import com.example.DepartmentalStoreCrud.dto.ProductSuggestion;
 import com.example.DepartmentalStoreCrud.service.ProductInventoryService;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,6 +15,7 @@ import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
@@ -83,6 +87,19 @@ public class ProductInventoryControllerTest {
         verify(productInventoryService, times(1)).getProductById(productId);
     }
 
+    @Test
+    void getProductsByIdsTest() throws Exception {
+        ProductInventory product = createProduct(2L);
+        when(productInventoryService.getProductsByIds(List.of(2L, 9L))).thenReturn(new Lookup<>(List.of(product), List.of(9L)));
+
+        mockMvc.perform(get("/products").param("ids", "2,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].productID", is(2)))
+                .andExpect(jsonPath("$.missing[0]", is(9)));
+
+        verify(productInventoryService, never()).getAllProducts();
+    }
+
     //negative case
     @Test
     void getProductByIdTest_ProductNotFound() throws Exception {
@@ -171,7 +188,7 @@ public class ProductInventoryControllerTest {
         List<ProductInventory> result = new ArrayList<>();
         result.add(productInventory.get(0));
         result.add(productInventory.get(1));
-        when(productInventoryService.searchProducts("chair")).thenReturn(result);
+        when(productInventoryService.searchProducts("chair", 0, 20)).thenReturn(new SliceImpl<>(result));
         mockMvc.perform(get("/products/search")
                         .param("name", "chair"))
                 .andExpect(status().isOk())
@@ -180,7 +197,37 @@ public class ProductInventoryControllerTest {
                 .andExpect(jsonPath("$[0].productName", is("Office chair")))
                 .andExpect(jsonPath("$[1].productName", is("Gaming chair")));
 
-        verify(productInventoryService, times(1)).searchProducts("chair");
+        verify(productInventoryService, times(1)).searchProducts("chair", 0, 20);
+    }
+
+    @Test
+    void testAutocompleteProducts() throws Exception {
+        List<ProductSuggestion> suggestions = List.of(new ProductSuggestion(1L, "Office chair"), new ProductSuggestion(2L, "Gaming chair"));
+        when(productInventoryService.autocompleteProducts("cha", 10)).thenReturn(suggestions);
+        mockMvc.perform(get("/products/autocomplete")
+                        .param("q", "cha"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].productName", is("Office chair")));
+
+        verify(productInventoryService, times(1)).autocompleteProducts("cha", 10);
+    }
+
+    @Test
+    void testGetProductsAfter() throws Exception {
+        CursorPage<ProductInventory> page = new CursorPage<>(List.of(createProduct(11L), createProduct(12L)), true, "12");
+        when(productInventoryService.getProductsAfter(10L, 2)).thenReturn(page);
+        mockMvc.perform(get("/products")
+                        .param("after", "10")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.nextCursor", is("12")));
+
+        verify(productInventoryService, times(1)).getProductsAfter(10L, 2);
+        verify(productInventoryService, never()).getAllProducts();
     }
 
     private ProductInventory createProduct(Long productId) {
@@ -1,15 +1,27 @@
 package com.example.DepartmentalStoreCrud.unit.service;
 
 import com.example.DepartmentalStoreCrud.bean.Backorder;
+import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.BackorderView;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
 import com.example.DepartmentalStoreCrud.repository.BackorderRepository;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
 import com.example.DepartmentalStoreCrud.service.BackorderService;
+import com.example.DepartmentalStoreCrud.service.InventoryCounter;
+import com.example.DepartmentalStoreCrud.service.ProductCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
@@ -23,25 +35,54 @@ public class BackorderServiceTest {
     @Mock
     private BackorderRepository backorderRepository;
 
+    @Mock
+    private ProductBatchRepository productBatchRepository;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private InventoryCounter inventoryCounter;
+
     @InjectMocks
     private BackorderService backorderService;
 
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(backorderService, "maxPageSize", 50);
     }
 
     @Test
-    public void testGetAllBackorders() {
+    public void testGetBackorders_FirstPageById() {
         List<Backorder> backorders = new ArrayList<>();
-        backorders.add(new Backorder());
-        backorders.add(new Backorder());
-        when(backorderRepository.findAll()).thenReturn(backorders);
-        assertNotNull(backorders);
-        List<Backorder> result = backorderService.getAllBackorders();
-        assertEquals(backorders, result);
-        assertEquals(2, result.size());
-        verify(backorderRepository, times(1)).findAll();
+        backorders.add(createBackorder(1L, 2));
+        backorders.add(createBackorder(2L, 3));
+        when(backorderRepository.findByBackorderIDGreaterThanOrderByBackorderIDAsc(0L, PageRequest.of(0, 50)))
+                .thenReturn(new SliceImpl<>(backorders, PageRequest.of(0, 50), false));
+
+        CursorPage<BackorderView> page = backorderService.getBackorders(null, 500, SortKey.ID);
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(2L, page.getContent().get(1).getBackorderID());
+        assertEquals(3, page.getContent().get(1).getOrder().getOrderQuantity());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verify(backorderRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetBackorders_ByTimestamp() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
+        Backorder backorder = createBackorder(4L, 1);
+        backorder.setOrderTimestamp(timestamp);
+        when(backorderRepository.findAfterTimestamp(timestamp, 3L, PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(backorder), PageRequest.of(0, 1), true));
+
+        CursorPage<BackorderView> page = backorderService.getBackorders("2024-05-01T10:15:30_3", 1, SortKey.TIMESTAMP);
+
+        assertTrue(page.isHasNext());
+        assertEquals("2024-05-01T10:15:30_4", page.getNextCursor());
     }
 
     @Test
@@ -118,10 +159,84 @@ public class BackorderServiceTest {
         verify(backorderRepository, never()).delete(any());
     }
 
+    @Test
+    public void testFulfilBackorders_OldestFirst() {
+        Backorder oldest = createBackorder(1L, 2);
+        Backorder large = createBackorder(2L, 50);
+        Backorder newest = createBackorder(3L, 1);
+        when(backorderRepository.findPendingByProductID(1L)).thenReturn(List.of(oldest, large, newest));
+        when(productBatchRepository.decrementStock(1L, 2)).thenReturn(1);
+        when(productBatchRepository.decrementStock(1L, 50)).thenReturn(0);
+        when(productBatchRepository.decrementStock(1L, 1)).thenReturn(1);
+
+        assertEquals(1, backorderService.fulfilBackorders(1L));
+        verify(backorderRepository, times(1)).delete(oldest);
+        verify(backorderRepository, never()).delete(large);
+        verify(productBatchRepository, never()).decrementStock(1L, 1);
+        verify(productCache, times(1)).evict(1L);
+    }
+
+    @Test
+    public void testFulfilBackorders_WriteBehind() {
+        Backorder oldest = createBackorder(1L, 2);
+        Backorder large = createBackorder(2L, 50);
+        when(backorderRepository.findPendingByProductID(1L)).thenReturn(List.of(oldest, large));
+        when(inventoryCounter.isEnabled()).thenReturn(true);
+        when(inventoryCounter.reserve(1L, 2)).thenReturn(true);
+        when(inventoryCounter.reserve(1L, 50)).thenReturn(false);
+
+        assertEquals(1, backorderService.fulfilBackorders(1L));
+        assertTrue(oldest.getOrder().isStockPending());
+        assertFalse(large.getOrder().isStockPending());
+        verify(backorderRepository, times(1)).delete(oldest);
+        verify(productBatchRepository, never()).decrementStock(anyLong(), anyInt());
+    }
+
+    @Test
+    public void testCreateBackorder_CopiesQueueColumns() {
+        Backorder backorder = createBackorder(1L, 2);
+        ProductInventory product = new ProductInventory();
+        product.setProductID(5L);
+        backorder.getOrder().setProductInventory(product);
+        LocalDateTime orderTime = LocalDateTime.now();
+        backorder.getOrder().setOrderTimestamp(orderTime);
+        when(backorderRepository.save(backorder)).thenReturn(backorder);
+
+        backorderService.createBackorder(backorder);
+        assertEquals(5L, backorder.getProductID());
+        assertEquals(orderTime, backorder.getOrderTimestamp());
+    }
+
+    @Test
+    public void testBackfillQueueColumns_NothingToFill() {
+        when(backorderRepository.existsByProductIDIsNull()).thenReturn(false);
+
+        backorderService.backfillQueueColumns();
+        verify(backorderRepository, never()).backfillQueueColumns();
+    }
+
+    @Test
+    public void testBackfillQueueColumns_FillsOldBackorders() {
+        when(backorderRepository.existsByProductIDIsNull()).thenReturn(true);
+        when(backorderRepository.backfillQueueColumns()).thenReturn(2);
+
+        backorderService.backfillQueueColumns();
+        verify(backorderRepository, times(1)).backfillQueueColumns();
+    }
+
     private Backorder createBackorder(Long backorderId) {
         Backorder backorder = new Backorder();
         backorder.setBackorderID(1L);
         backorder.setOrder(null);
         return backorder;
     }
+
+    private Backorder createBackorder(Long backorderId, int orderQuantity) {
+        Order order = new Order();
+        order.setOrderQuantity(orderQuantity);
+        Backorder backorder = new Backorder();
+        backorder.setBackorderID(backorderId);
+        backorder.setOrder(order);
+        return backorder;
+    }
 }
@@ -3,18 +3,29 @@ package com.example.DepartmentalStoreCrud.unit.service;
 import com.example.DepartmentalStoreCrud.bean.Customer;
 import com.example.DepartmentalStoreCrud.bean.Order;
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.CustomerOrderView;
+import com.example.DepartmentalStoreCrud.dto.Lookup;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
 import com.example.DepartmentalStoreCrud.repository.CustomerRepository;
 import com.example.DepartmentalStoreCrud.repository.OrderRepository;
 import com.example.DepartmentalStoreCrud.service.CustomerService;
+import org.hibernate.CacheMode;
+import org.hibernate.MultiIdentifierLoadAccess;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.TestPropertySource;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
@@ -33,6 +44,9 @@ public class CustomerServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
     @Autowired
     @InjectMocks
     private CustomerService customerService;
@@ -43,16 +57,21 @@ public class CustomerServiceTest {
     }
 
     @Test
-    public void testGetAllCustomers() {
+    public void testGetCustomers() {
         List<Customer> customers = new ArrayList<>();
         customers.add(createCustomer(1L)); // Sample customer with ID 1L
         customers.add(createCustomer(2L));
-        when(customerRepository.findAll()).thenReturn(customers);
-        assertNotNull(customers);
-        List<Customer> result = customerService.getAllCustomers();
-        assertEquals(2, result.size());
-        assertEquals(customers, result);
-        verify(customerRepository, times(1)).findAll();
+        when(customerRepository.findByCustomerIDGreaterThanOrderByCustomerIDAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(customers, PageRequest.of(0, 2), true));
+        CursorPage<Customer> page = customerService.getCustomers(null, 2, SortKey.ID);
+        assertEquals(customers, page.getContent());
+        assertEquals("2", page.getNextCursor());
+        verify(customerRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetCustomers_ByTimestamp() {
+        assertThrows(IllegalArgumentException.class, () -> customerService.getCustomers(null, 2, SortKey.TIMESTAMP));
     }
 
     @Test
@@ -87,26 +106,43 @@ public class CustomerServiceTest {
     public void testGetOrdersByCustomer() {
         // Arrange
         Long customerId = 1L;
-        Customer customer = createCustomer(customerId);
-        List<Order> orders = new ArrayList<>();
-        orders.add(createOrder(1L)); // Sample order with ID 1L and matching customer ID
-        orders.add(createOrder(2L));
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
-        when(orderRepository.findByCustomer_CustomerID(customerId)).thenReturn(orders);
-
-        // Argument captor
-        ArgumentCaptor<Long> customerIdCaptor = ArgumentCaptor.forClass(Long.class);
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
+        List<CustomerOrderView> orders = new ArrayList<>();
+        orders.add(new CustomerOrderView(2L, 1L, "Product 1", 2, 10.0, 90.0, 180.0, timestamp));
+        orders.add(new CustomerOrderView(1L, 1L, "Product 1", 1, 0.0, 100.0, 100.0, timestamp));
+        when(orderRepository.findLatestViewsByCustomer(customerId, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(orders, PageRequest.of(0, 2), true));
 
         // Act
-        List<Order> result = customerService.getOrdersByCustomer(customerId);
+        CursorPage<CustomerOrderView> result = customerService.getOrdersByCustomer(customerId, null, 2);
 
         // Assert
-        assertEquals(2, result.size());
-        assertEquals(orders, result);
-        verify(customerRepository, times(1)).findById(customerIdCaptor.capture());
-        assertEquals(customerId, customerIdCaptor.getValue());
-        verify(orderRepository, times(1)).findByCustomer_CustomerID(customerIdCaptor.capture());
-        assertEquals(customerId, customerIdCaptor.getValue());
+        assertEquals(orders, result.getContent());
+        assertEquals("2024-05-01T10:15:30_1", result.getNextCursor());
+        verify(customerRepository, never()).findById(customerId);
+        verify(customerRepository, never()).existsById(customerId);
+    }
+
+    @Test
+    public void testGetOrdersByCustomer_AfterCursor() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
+        when(orderRepository.findViewsByCustomerBefore(1L, timestamp, 1L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 2), false));
+
+        CursorPage<CustomerOrderView> result = customerService.getOrdersByCustomer(1L, "2024-05-01T10:15:30_1", 2);
+
+        assertTrue(result.getContent().isEmpty());
+        assertFalse(result.isHasNext());
+        verify(customerRepository, never()).existsById(1L);
+    }
+
+    @Test
+    public void testGetOrdersByCustomer_NonexistentCustomer() {
+        when(orderRepository.findLatestViewsByCustomer(3L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 2), false));
+        when(customerRepository.existsById(3L)).thenReturn(false);
+
+        assertThrows(NoSuchElementException.class, () -> customerService.getOrdersByCustomer(3L, null, 2));
     }
 
     @Test
@@ -250,6 +286,25 @@ public class CustomerServiceTest {
         verify(customerRepository, never()).delete(any());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testGetCustomersByIds() {
+        Session session = mock(Session.class);
+        MultiIdentifierLoadAccess<Customer> loadAccess = mock(MultiIdentifierLoadAccess.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.byMultipleIds(Customer.class)).thenReturn(loadAccess);
+        when(loadAccess.with(CacheMode.NORMAL)).thenReturn(loadAccess);
+        when(loadAccess.enableSessionCheck(true)).thenReturn(loadAccess);
+        when(loadAccess.multiLoad(List.of(2L, 1L, 3L))).thenReturn(Arrays.asList(createCustomer(2L), createCustomer(1L), null));
+
+        Lookup<Customer> lookup = customerService.getCustomersByIds(List.of(2L, 1L, 2L, 3L));
+
+        assertEquals(2L, lookup.getFound().get(0).getCustomerID());
+        assertEquals(1L, lookup.getFound().get(1).getCustomerID());
+        assertEquals(List.of(3L), lookup.getMissing());
+        verify(customerRepository, never()).findAllById(anyIterable());
+    }
+
     private Customer createCustomer(Long customerId) {
         Customer customer = new Customer();
         customer.setCustomerID(customerId);
@@ -0,0 +1,90 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.bean.Customer;
+import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.service.EntityJsonStreamer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class EntityJsonStreamerTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private EntityJsonStreamer jsonStreamer;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(jsonStreamer, "objectMapper", objectMapper);
+    }
+
+    @Test
+    public void testWriteArray_DetachesWrittenEntities() throws IOException {
+        ProductInventory product = new ProductInventory();
+        product.setProductID(1L);
+        product.setProductName("Product 1");
+        Order first = createOrder(1L, product);
+        Order second = createOrder(2L, product);
+        second.setCustomer(null);
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        long written = jsonStreamer.writeArray(Stream.of(first, second).onClose(() -> closed.set(true)), output,
+                order -> Arrays.asList(order, order.getCustomer(), order.getProductInventory()));
+
+        assertEquals(2, written);
+        assertTrue(closed.get());
+        JsonNode orders = objectMapper.readTree(output.toByteArray());
+        assertEquals(2, orders.size());
+        assertEquals(1, orders.get(0).get("orderID").asLong());
+        assertEquals("John Doe", orders.get(0).get("customer").get("fullName").asText());
+        assertTrue(orders.get(1).get("customer").isNull());
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(first.getCustomer());
+        verify(entityManager).detach(second);
+        verify(entityManager, times(2)).detach(product);
+    }
+
+    @Test
+    public void testWriteArray_Empty() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertEquals(0, jsonStreamer.writeArray(Stream.empty(), output));
+        assertEquals("[]", output.toString());
+        verifyNoInteractions(entityManager);
+    }
+
+    private Order createOrder(Long orderId, ProductInventory product) {
+        Customer customer = new Customer();
+        customer.setCustomerID(1L);
+        customer.setFullName("John Doe");
+        Order order = new Order();
+        order.setOrderID(orderId);
+        order.setOrderTimestamp(LocalDateTime.of(2024, 5, 1, 10, 15, 30));
+        order.setCustomer(customer);
+        order.setProductInventory(product);
+        return order;
+    }
+}
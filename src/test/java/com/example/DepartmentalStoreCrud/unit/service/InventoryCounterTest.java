@@ -0,0 +1,105 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
+import com.example.DepartmentalStoreCrud.service.InventoryCounter;
+import com.example.DepartmentalStoreCrud.service.ProductCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class InventoryCounterTest {
+
+    @Mock
+    private ProductBatchRepository productBatchRepo;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private InventoryCounter inventoryCounter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(inventoryCounter, "enabled", true);
+        ReflectionTestUtils.setField(inventoryCounter, "flushBatchSize", 100);
+        inventoryCounter.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testReserve_LoadsOnceAndGuardsTheStock() {
+        when(productBatchRepo.findAvailableStock(1L)).thenReturn(5L);
+
+        assertTrue(inventoryCounter.reserve(1L, 3));
+        assertTrue(inventoryCounter.reserve(1L, 2));
+        assertFalse(inventoryCounter.reserve(1L, 1));
+        verify(productBatchRepo, times(1)).findAvailableStock(1L);
+    }
+
+    @Test
+    public void testReserve_GivenBackOnRollback() {
+        when(productBatchRepo.findAvailableStock(1L)).thenReturn(4L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertTrue(inventoryCounter.reserve(1L, 4));
+        assertFalse(inventoryCounter.reserve(1L, 1));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertTrue(inventoryCounter.reserve(1L, 4));
+    }
+
+    @Test
+    public void testAdjust_AddsRestockedQuantity() {
+        when(productBatchRepo.findAvailableStock(1L)).thenReturn(0L);
+
+        inventoryCounter.adjust(1L, 10);
+
+        assertTrue(inventoryCounter.reserve(1L, 10));
+        assertFalse(inventoryCounter.reserve(1L, 1));
+    }
+
+    @Test
+    public void testFlush_EvictsTakenProducts() {
+        when(productBatchRepo.takePendingStock(100)).thenReturn(Map.of(1L, 7L));
+
+        inventoryCounter.flush();
+
+        verify(productBatchRepo, times(1)).evictCached(Map.of(1L, 7L).keySet());
+        verify(productCache, times(1)).evictAll(Map.of(1L, 7L).keySet());
+    }
+
+    @Test
+    public void testFlush_Disabled() {
+        ReflectionTestUtils.setField(inventoryCounter, "enabled", false);
+
+        inventoryCounter.flush();
+        inventoryCounter.adjust(1L, 5);
+
+        verifyNoInteractions(productBatchRepo);
+    }
+}
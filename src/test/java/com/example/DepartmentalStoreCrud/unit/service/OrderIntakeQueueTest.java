@@ -0,0 +1,151 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.bean.Order;
+import com.example.DepartmentalStoreCrud.dto.OrderPlacement;
+import com.example.DepartmentalStoreCrud.service.OrderIntakeQueue;
+import com.example.DepartmentalStoreCrud.service.OrderService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class OrderIntakeQueueTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private OrderIntakeQueue orderIntake;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(orderIntake, "enabled", true);
+        ReflectionTestUtils.setField(orderIntake, "capacity", 10);
+        ReflectionTestUtils.setField(orderIntake, "writers", 1);
+        ReflectionTestUtils.setField(orderIntake, "batchSize", 10);
+        ReflectionTestUtils.setField(orderIntake, "timeoutMillis", 5000L);
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        orderIntake.stop();
+    }
+
+    @Test
+    public void testPlace_QueuedOrdersShareOneCommit() throws Exception {
+        CountDownLatch firstPlacing = new CountDownLatch(1);
+        CountDownLatch othersQueued = new CountDownLatch(1);
+        Order first = createOrder(1);
+        when(orderService.placeOrder(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            if (order == first) {
+                firstPlacing.countDown();
+                othersQueued.await(5, TimeUnit.SECONDS);
+            }
+            return OrderPlacement.placed((long) order.getOrderQuantity());
+        });
+        orderIntake.start();
+
+        CompletableFuture<OrderPlacement> firstResult = orderIntake.submit(first);
+        assertTrue(firstPlacing.await(5, TimeUnit.SECONDS));
+        List<CompletableFuture<OrderPlacement>> results = new ArrayList<>();
+        for (int quantity = 2; quantity <= 4; quantity++) {
+            results.add(orderIntake.submit(createOrder(quantity)));
+        }
+        othersQueued.countDown();
+
+        assertEquals(1L, firstResult.get(5, TimeUnit.SECONDS).getOrderID());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i + 2L, results.get(i).get(5, TimeUnit.SECONDS).getOrderID());
+        }
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    public void testPlace_FailedOrderFailsAlone() {
+        Order unknownCustomer = createOrder(2);
+        when(orderService.placeOrder(any(Order.class))).thenReturn(OrderPlacement.placed(1L));
+        when(orderService.placeOrder(unknownCustomer)).thenThrow(new NoSuchElementException("No customer exists with ID: 9"));
+        orderIntake.start();
+
+        assertEquals(OrderPlacement.Status.PLACED, orderIntake.place(createOrder(1)).getStatus());
+        assertThrows(NoSuchElementException.class, () -> orderIntake.place(unknownCustomer));
+        verify(orderService, never()).addOrderDetails(any(Order.class));
+    }
+
+    @Test
+    public void testPlace_FailedCommitPlacesOrdersOneByOne() {
+        Order order = createOrder(1);
+        when(orderService.placeOrder(order)).thenReturn(OrderPlacement.placed(1L));
+        doThrow(new TransactionSystemException("commit failed")).when(transactionManager).commit(any());
+        when(orderService.addOrderDetails(order)).thenReturn(OrderPlacement.backordered(1L, 3L));
+        orderIntake.start();
+
+        OrderPlacement placement = orderIntake.place(order);
+
+        assertEquals(OrderPlacement.Status.BACKORDERED, placement.getStatus());
+        verify(orderService, times(1)).addOrderDetails(order);
+    }
+
+    @Test
+    public void testSubmit_FullQueueRejects() {
+        ReflectionTestUtils.setField(orderIntake, "capacity", 1);
+        ReflectionTestUtils.setField(orderIntake, "writers", 0);
+        orderIntake.start();
+
+        orderIntake.submit(createOrder(1));
+        assertThrows(TaskRejectedException.class, () -> orderIntake.submit(createOrder(2)));
+    }
+
+    @Test
+    public void testPlace_TimeoutRejectsAndDequeues() {
+        ReflectionTestUtils.setField(orderIntake, "capacity", 1);
+        ReflectionTestUtils.setField(orderIntake, "writers", 0);
+        ReflectionTestUtils.setField(orderIntake, "timeoutMillis", 50L);
+        orderIntake.start();
+
+        assertThrows(TaskRejectedException.class, () -> orderIntake.place(createOrder(1)));
+        assertNotNull(orderIntake.submit(createOrder(2)));
+    }
+
+    @Test
+    public void testStop_RejectsQueuedOrders() throws Exception {
+        ReflectionTestUtils.setField(orderIntake, "writers", 0);
+        orderIntake.start();
+        CompletableFuture<OrderPlacement> result = orderIntake.submit(createOrder(1));
+
+        orderIntake.stop();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TaskRejectedException.class, e.getCause());
+        assertThrows(TaskRejectedException.class, () -> orderIntake.submit(createOrder(2)));
+    }
+
+    private Order createOrder(final int quantity) {
+        Order order = new Order();
+        order.setOrderQuantity(quantity);
+        return order;
+    }
+}
@@ -4,15 +4,27 @@ import com.example.DepartmentalStoreCrud.bean.Backorder;
 import com.example.DepartmentalStoreCrud.bean.Customer;
 import com.example.DepartmentalStoreCrud.bean.Order;
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.OrderPlacement;
+import com.example.DepartmentalStoreCrud.dto.OrderView;
+import com.example.DepartmentalStoreCrud.dto.SortKey;
+import com.example.DepartmentalStoreCrud.exception.InvalidRequestException;
 import com.example.DepartmentalStoreCrud.repository.BackorderRepository;
 import com.example.DepartmentalStoreCrud.repository.CustomerRepository;
+import com.example.DepartmentalStoreCrud.repository.OrderBatchRepository;
 import com.example.DepartmentalStoreCrud.repository.OrderRepository;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
 import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
 import com.example.DepartmentalStoreCrud.service.BackorderService;
+import com.example.DepartmentalStoreCrud.service.InventoryCounter;
 import com.example.DepartmentalStoreCrud.service.OrderService;
+import com.example.DepartmentalStoreCrud.service.ProductCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -41,25 +53,79 @@ public class OrderServiceTest {
     @Mock
     private BackorderRepository backorderRepository;
 
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private InventoryCounter inventoryCounter;
+
+    @Mock
+    private OrderBatchRepository orderBatchRepository;
+
+    @Mock
+    private ProductBatchRepository productBatchRepository;
+
     @InjectMocks
     private OrderService orderService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(orderService, "maxPageSize", 50);
+        ReflectionTestUtils.setField(orderService, "maxBatchSize", 10);
     }
 
     @Test
-    public void testGetAllOrders() {
+    public void testGetOrders_ById() {
         List<Order> orders = new ArrayList<>();
-        orders.add(createOrder(1L)); // Sample order with ID 1L
-        orders.add(createOrder(2L));
-        when(orderRepository.findAll()).thenReturn(orders);
-        assertNotNull(orders);
-        List<Order> result = orderService.getAllOrders();
-        assertEquals(2, result.size());
-        assertEquals(orders, result);
-        verify(orderRepository, times(1)).findAll();
+        orders.add(createOrder(11L));
+        orders.add(createOrder(12L));
+        when(orderRepository.findByOrderIDGreaterThanOrderByOrderIDAsc(10L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(orders, PageRequest.of(0, 2), true));
+
+        CursorPage<OrderView> page = orderService.getOrders("10", 2, SortKey.ID);
+
+        assertEquals(2, page.getContent().size());
+        OrderView first = page.getContent().get(0);
+        assertEquals(11L, first.getOrderID());
+        assertEquals("John Doe", first.getCustomer().getFullName());
+        assertEquals(1L, first.getProductInventory().getProductID());
+        assertTrue(page.isHasNext());
+        assertEquals("12", page.getNextCursor());
+        verify(orderRepository, never()).findAll();
+    }
+
+    @Test
+    public void testGetOrders_ByTimestampAfterCursor() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 10, 15, 30);
+        Order order = createOrder(8L);
+        order.setOrderTimestamp(timestamp.plusSeconds(1));
+        when(orderRepository.findAfterTimestamp(timestamp, 7L, PageRequest.of(0, 50)))
+                .thenReturn(new SliceImpl<>(List.of(order), PageRequest.of(0, 50), true));
+
+        CursorPage<OrderView> page = orderService.getOrders("2024-05-01T10:15:30_7", 1000, SortKey.TIMESTAMP);
+
+        assertEquals(List.of(OrderView.from(order)), page.getContent());
+        assertEquals("2024-05-01T10:15:31_8", page.getNextCursor());
+    }
+
+    @Test
+    public void testGetOrders_FirstPageByTimestamp() {
+        when(orderRepository.findFirstByTimestamp(PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 20), false));
+
+        CursorPage<OrderView> page = orderService.getOrders(null, 20, SortKey.TIMESTAMP);
+
+        assertTrue(page.getContent().isEmpty());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testGetOrders_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrders("yesterday", 20, SortKey.TIMESTAMP));
+        assertThrows(IllegalArgumentException.class, () -> orderService.getOrders("abc", 20, SortKey.ID));
+        verifyNoInteractions(orderRepository);
     }
 
     @Test
@@ -100,17 +166,23 @@ public class OrderServiceTest {
         when(orderRepository.save(order)).thenReturn(order);
         when(productInventoryRepository.findById(order.getProductInventory().getProductID())).thenReturn(Optional.of(order.getProductInventory()));
         when(customerRepository.findById(order.getCustomer().getCustomerID())).thenReturn(Optional.of(order.getCustomer()));
+        when(productBatchRepository.decrementStock(order.getProductInventory().getProductID(), order.getOrderQuantity())).thenReturn(1);
 
         // Argument captor
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
-        Order newOrder = orderService.addOrderDetails(order);
-        assertNotNull(newOrder);
-        assertEquals(order, newOrder);
-        assertEquals(200, newOrder.getTotalPrice());
-        assertEquals(180, newOrder.getDiscountedPrice());
-        verify(orderRepository, times(2)).save(orderCaptor.capture());
+        OrderPlacement placement = orderService.addOrderDetails(order);
+        assertNotNull(placement);
+        assertEquals(OrderPlacement.Status.PLACED, placement.getStatus());
+        assertEquals(order.getOrderID(), placement.getOrderID());
+        assertNull(placement.getBackorderID());
+        assertEquals(200, order.getTotalPrice());
+        assertEquals(180, order.getDiscountedPrice());
+        verify(orderRepository, times(1)).save(orderCaptor.capture());
         verify(productInventoryRepository, times(1)).findById(order.getProductInventory().getProductID());
+        verify(productBatchRepository, times(1)).decrementStock(order.getProductInventory().getProductID(), order.getOrderQuantity());
+        verify(productInventoryRepository, never()).save(any(ProductInventory.class));
+        verify(productCache, times(1)).evict(order.getProductInventory().getProductID());
         verify(customerRepository, times(1)).findById(order.getCustomer().getCustomerID());
         assertEquals(order, orderCaptor.getValue());
     }
@@ -119,18 +191,129 @@ public class OrderServiceTest {
     public void testAddOrderDetails_OutOfStock() {
         // Arrange
         Order order = createOrder(1L); // Sample order with ID 1L
-        Backorder backorder = Mockito.mock(Backorder.class);
-        backorderRepository.save(backorder);
+        Backorder backorder = createBackorder(order);
+        backorder.setBackorderID(7L);
         ProductInventory productInventory = order.getProductInventory();
         productInventory.setProductQuantity(0);
+        when(orderRepository.save(order)).thenReturn(order);
         when(productInventoryRepository.findById(productInventory.getProductID())).thenReturn(Optional.of(productInventory));
         when(customerRepository.findById(order.getCustomer().getCustomerID())).thenReturn(Optional.of(order.getCustomer()));
-        backorderService.createBackorder(backorder);
-        when(backorderRepository.save(backorder)).thenReturn(backorder);
-        assertThrows(IllegalStateException.class, () -> orderService.addOrderDetails(order));
-        verify(orderRepository, times(2)).save(order);
+        when(backorderService.createBackorder(any(Backorder.class))).thenReturn(backorder);
+        when(productBatchRepository.decrementStock(productInventory.getProductID(), order.getOrderQuantity())).thenReturn(0);
+
+        OrderPlacement placement = orderService.addOrderDetails(order);
+        assertEquals(OrderPlacement.Status.BACKORDERED, placement.getStatus());
+        assertEquals(order.getOrderID(), placement.getOrderID());
+        assertEquals(7L, placement.getBackorderID());
+        verify(orderRepository, times(1)).save(order);
+        verify(backorderService, times(1)).createBackorder(any(Backorder.class));
         verify(productInventoryRepository, times(1)).findById(productInventory.getProductID());
         verify(customerRepository, times(1)).findById(order.getCustomer().getCustomerID());
+        verify(productCache, never()).evict(anyLong());
+    }
+
+    @Test
+    public void testAddOrdersDetails_AggregatesStockAndReportsEachOrder() {
+        List<Order> orders = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            orders.add(createOrder(null));
+        }
+        Order unknownCustomer = createOrder(null);
+        unknownCustomer.getCustomer().setCustomerID(9L);
+        orders.add(unknownCustomer);
+        Customer customer = orders.get(0).getCustomer();
+        ProductInventory productInventory = orders.get(0).getProductInventory();
+        when(customerRepository.findAllById(anyCollection())).thenReturn(List.of(customer));
+        when(productInventoryRepository.findAllForUpdate(anyCollection())).thenReturn(List.of(productInventory));
+        when(productBatchRepository.decrementStock(1L, 4)).thenReturn(1);
+        when(orderBatchRepository.insertAll(anyList())).thenAnswer(invocation -> {
+            List<Order> inserted = invocation.getArgument(0);
+            for (int i = 0; i < inserted.size(); i++) {
+                inserted.get(i).setOrderID(i + 1L);
+            }
+            return inserted;
+        });
+        when(orderBatchRepository.insertBackorders(anyList())).thenAnswer(invocation -> {
+            List<Backorder> inserted = invocation.getArgument(0);
+            inserted.forEach(backorder -> backorder.setBackorderID(7L));
+            return inserted;
+        });
+
+        List<OrderPlacement> placements = orderService.addOrdersDetails(orders);
+
+        assertEquals(4, placements.size());
+        assertEquals(OrderPlacement.placed(1L), placements.get(0));
+        assertEquals(OrderPlacement.placed(2L), placements.get(1));
+        assertEquals(OrderPlacement.backordered(3L, 7L), placements.get(2));
+        assertEquals(OrderPlacement.Status.REJECTED, placements.get(3).getStatus());
+        assertEquals("No customer exists with ID: 9", placements.get(3).getReason());
+        assertEquals(180, orders.get(0).getDiscountedPrice());
+        verify(productBatchRepository, times(1)).decrementStock(1L, 4);
+        verify(productCache, times(1)).evict(1L);
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(backorderService, never()).createBackorder(any(Backorder.class));
+    }
+
+    @Test
+    public void testAddOrdersDetails_StockChangedFailsBatch() {
+        Order order = createOrder(null);
+        when(customerRepository.findAllById(anyCollection())).thenReturn(List.of(order.getCustomer()));
+        when(productInventoryRepository.findAllForUpdate(anyCollection())).thenReturn(List.of(order.getProductInventory()));
+        when(productBatchRepository.decrementStock(1L, 2)).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> orderService.addOrdersDetails(List.of(order)));
+        verify(productCache, never()).evict(anyLong());
+        verify(orderBatchRepository, never()).insertBackorders(anyList());
+    }
+
+    @Test
+    public void testAddOrdersDetails_TooMany() {
+        List<Order> orders = new ArrayList<>();
+        for (long id = 1; id <= 11; id++) {
+            orders.add(createOrder(null));
+        }
+
+        InvalidRequestException e = assertThrows(InvalidRequestException.class, () -> orderService.addOrdersDetails(orders));
+        assertEquals("At most 10 orders can be placed at once", e.getMessage());
+        verifyNoInteractions(orderBatchRepository);
+    }
+
+    @Test
+    public void testAddOrderDetails_WriteBehind() {
+        Order order = createOrder(1L);
+        Long productID = order.getProductInventory().getProductID();
+        when(orderRepository.save(order)).thenReturn(order);
+        when(productInventoryRepository.findById(productID)).thenReturn(Optional.of(order.getProductInventory()));
+        when(customerRepository.findById(order.getCustomer().getCustomerID())).thenReturn(Optional.of(order.getCustomer()));
+        when(inventoryCounter.isEnabled()).thenReturn(true);
+        when(inventoryCounter.reserve(productID, order.getOrderQuantity())).thenReturn(true);
+
+        OrderPlacement placement = orderService.addOrderDetails(order);
+
+        assertEquals(OrderPlacement.Status.PLACED, placement.getStatus());
+        assertTrue(order.isStockPending());
+        verify(productBatchRepository, never()).decrementStock(anyLong(), anyInt());
+        verify(backorderService, never()).createBackorder(any(Backorder.class));
+    }
+
+    @Test
+    public void testAddOrderDetails_WriteBehindOutOfStock() {
+        Order order = createOrder(1L);
+        Long productID = order.getProductInventory().getProductID();
+        Backorder backorder = createBackorder(order);
+        backorder.setBackorderID(7L);
+        when(orderRepository.save(order)).thenReturn(order);
+        when(productInventoryRepository.findById(productID)).thenReturn(Optional.of(order.getProductInventory()));
+        when(customerRepository.findById(order.getCustomer().getCustomerID())).thenReturn(Optional.of(order.getCustomer()));
+        when(backorderService.createBackorder(any(Backorder.class))).thenReturn(backorder);
+        when(inventoryCounter.isEnabled()).thenReturn(true);
+        when(inventoryCounter.reserve(productID, order.getOrderQuantity())).thenReturn(false);
+
+        OrderPlacement placement = orderService.addOrderDetails(order);
+
+        assertEquals(OrderPlacement.Status.BACKORDERED, placement.getStatus());
+        assertFalse(order.isStockPending());
+        verify(productBatchRepository, never()).decrementStock(anyLong(), anyInt());
     }
 
     @Test
@@ -141,14 +324,16 @@ public class OrderServiceTest {
         when(customerRepository.findById(order.getCustomer().getCustomerID())).thenReturn(Optional.of(order.getCustomer()));
         when(orderRepository.save(order)).thenReturn(order);
         order.setOrderQuantity(3);
+        when(productBatchRepository.decrementStock(order.getProductInventory().getProductID(), 3)).thenReturn(1);
 
         // Argument captor
         ArgumentCaptor<Order> orderCaptor = ArgumentCaptor.forClass(Order.class);
 
-        Order newOrder = orderService.updateOrderDetails(order.getOrderID(), order);
-        assertNotNull(newOrder);
+        OrderPlacement placement = orderService.updateOrderDetails(order.getOrderID(), order);
+        assertNotNull(placement);
+        assertEquals(OrderPlacement.Status.PLACED, placement.getStatus());
         assertEquals(3, order.getOrderQuantity());
-        verify(orderRepository, times(2)).save(orderCaptor.capture());
+        verify(orderRepository, times(1)).save(orderCaptor.capture());
         verify(productInventoryRepository, times(1)).findById(order.getProductInventory().getProductID());
         verify(customerRepository, times(1)).findById(order.getCustomer().getCustomerID());
         assertEquals(order, orderCaptor.getValue());
@@ -163,11 +348,13 @@ public class OrderServiceTest {
         productInventory.setProductQuantity(0);
         when(productInventoryRepository.findById(productInventory.getProductID())).thenReturn(Optional.of(productInventory));
         when(customerRepository.findById(order.getCustomer().getCustomerID())).thenReturn(Optional.of(order.getCustomer()));
-        when(backorderRepository.save(backorder)).thenReturn(backorder);
+        when(orderRepository.save(order)).thenReturn(order);
+        when(backorderService.createBackorder(any(Backorder.class))).thenReturn(backorder);
 
         // Act & Assert
-        assertThrows(IllegalStateException.class, () -> orderService.updateOrderDetails(order.getOrderID(), order));
-        verify(orderRepository, times(2)).save(order);
+        OrderPlacement placement = orderService.updateOrderDetails(order.getOrderID(), order);
+        assertEquals(OrderPlacement.Status.BACKORDERED, placement.getStatus());
+        verify(orderRepository, times(1)).save(order);
         verify(productInventoryRepository, times(1)).findById(productInventory.getProductID());
         verify(customerRepository, times(1)).findById(order.getCustomer().getCustomerID());
     }
@@ -178,7 +365,7 @@ public class OrderServiceTest {
         Long orderId = 1L;
         Order order = createOrder(orderId); // Sample order with ID 1L
         Backorder backorder = createBackorder(order);
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.of(order));
         when(backorderRepository.findByOrder(order)).thenReturn(backorder);
 
         // Assert
@@ -191,7 +378,7 @@ public class OrderServiceTest {
         // Arrange
         Long orderId = 1L;
         Order order = createOrder(orderId); // Sample order with ID 1L
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.of(order));
         when(backorderRepository.findByOrder(order)).thenReturn(null);
 
         //Argument captor
@@ -202,15 +389,36 @@ public class OrderServiceTest {
 
         // Assert
         verify(backorderRepository, never()).deleteById(anyLong());
+        verify(productBatchRepository, times(1)).creditStock(1L, 2);
+        verify(inventoryCounter, times(1)).adjust(1L, 2);
         verify(orderRepository, times(1)).deleteById(orderIdCaptor.capture());
         assertEquals(orderId, orderIdCaptor.getValue());
     }
 
+    @Test
+    public void testDeleteOrderDetails_StockPending() {
+        // Arrange
+        Long orderId = 1L;
+        Order order = createOrder(orderId);
+        order.setStockPending(true);
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.of(order));
+        when(backorderRepository.findByOrder(order)).thenReturn(null);
+
+        // Act
+        orderService.deleteOrderDetails(orderId);
+
+        // Assert
+        assertEquals(5, order.getProductInventory().getProductQuantity());
+        verify(inventoryCounter, times(1)).adjust(1L, 2);
+        verify(productBatchRepository, never()).creditStock(anyLong(), anyInt());
+        verify(orderRepository, times(1)).deleteById(orderId);
+    }
+
     @Test
     public void testDeleteOrderDetails_NonExistingOrder() {
         // Arrange
         Long orderId = 1L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findByIdForUpdate(orderId)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(NoSuchElementException.class, () -> orderService.deleteOrderDetails(orderId));
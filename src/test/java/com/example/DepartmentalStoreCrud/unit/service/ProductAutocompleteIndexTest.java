@@ -0,0 +1,146 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.ProductSuggestion;
+import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import com.example.DepartmentalStoreCrud.service.ProductAutocompleteIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductAutocompleteIndexTest {
+
+    @Mock
+    private ProductInventoryRepository productInventoryRepository;
+
+    @InjectMocks
+    private ProductAutocompleteIndex autocompleteIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        List<ProductInventory> products = List.of(
+                createProduct(1L, "Office chair", "Ergonomic mesh seat"),
+                createProduct(2L, "Gaming chair", "Racing style"),
+                createProduct(3L, "Chai tea", "Masala blend"),
+                createProduct(4L, "Puff jacket", "Winter wear for chilly days"));
+        when(productInventoryRepository.findByProductIDGreaterThanOrderByProductIDAsc(eq(0L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(products));
+        when(productInventoryRepository.findByProductIDGreaterThanOrderByProductIDAsc(eq(4L), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        autocompleteIndex.rebuild();
+    }
+
+    @Test
+    public void testSuggest_SubstringOfName() {
+        List<ProductSuggestion> suggestions = autocompleteIndex.suggest("chair", 10);
+        assertEquals(2, suggestions.size());
+        assertEquals("Gaming chair", suggestions.get(0).getProductName());
+        assertEquals("Office chair", suggestions.get(1).getProductName());
+    }
+
+    @Test
+    public void testSuggest_NamePrefixRanksFirst() {
+        List<ProductSuggestion> suggestions = autocompleteIndex.suggest("Cha", 10);
+        assertEquals(3L, suggestions.get(0).getProductID());
+        assertEquals(3, suggestions.size());
+    }
+
+    @Test
+    public void testSuggest_ShortQueryMatchesWordPrefixes() {
+        List<ProductSuggestion> suggestions = autocompleteIndex.suggest("ch", 10);
+        assertEquals(4, suggestions.size());
+        assertEquals(3L, suggestions.get(0).getProductID());
+        assertEquals(4L, suggestions.get(3).getProductID());
+    }
+
+    @Test
+    public void testSuggest_RespectsLimit() {
+        assertEquals(1, autocompleteIndex.suggest("chair", 1).size());
+    }
+
+    @Test
+    public void testIndex_UpdateAndRemove() {
+        autocompleteIndex.index(createProduct(1L, "Standing desk", "Oak top"));
+        assertEquals(1, autocompleteIndex.suggest("chair", 10).size());
+        assertEquals(1L, autocompleteIndex.suggest("desk", 10).get(0).getProductID());
+
+        autocompleteIndex.remove(1L);
+        assertTrue(autocompleteIndex.suggest("desk", 10).isEmpty());
+    }
+
+    @Test
+    public void testSuggest_CommonTextReturnsBestMatches() {
+        for (long id = 10; id < 5000; id++) {
+            autocompleteIndex.index(createProduct(id, "Armchair cover " + id, "Stretch fabric"));
+        }
+
+        List<ProductSuggestion> suggestions = autocompleteIndex.suggest("chair", 3);
+
+        assertEquals(3, suggestions.size());
+        assertEquals("Gaming chair", suggestions.get(0).getProductName());
+        assertEquals("Office chair", suggestions.get(1).getProductName());
+        assertEquals("Armchair cover 10", suggestions.get(2).getProductName());
+    }
+
+    @Test
+    public void testSuggest_BestMatchFoundPastWeakerPostings() {
+        for (long id = 10; id < 5000; id++) {
+            autocompleteIndex.index(createProduct(id, "Cushion " + id, "Chair protector"));
+        }
+        autocompleteIndex.index(createProduct(6000L, "Chair mat", "Floor guard"));
+
+        List<ProductSuggestion> suggestions = autocompleteIndex.suggest("chair", 1);
+
+        assertEquals(1, suggestions.size());
+        assertEquals(6000L, suggestions.get(0).getProductID());
+    }
+
+    @Test
+    public void testIndexAfterCommit_SkippedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            autocompleteIndex.indexAfterCommit(createProduct(5L, "Standing desk", "Oak top"));
+            assertTrue(autocompleteIndex.suggest("desk", 10).isEmpty());
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+            assertTrue(autocompleteIndex.suggest("desk", 10).isEmpty());
+
+            autocompleteIndex.indexAfterCommit(createProduct(6L, "Writing desk", "Walnut"));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            assertEquals(6L, autocompleteIndex.suggest("desk", 10).get(0).getProductID());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testSuggest_Blank() {
+        assertTrue(autocompleteIndex.suggest("  ", 10).isEmpty());
+        assertTrue(autocompleteIndex.suggest("xyz", 10).isEmpty());
+    }
+
+    private ProductInventory createProduct(Long productId, String productName, String productDesc) {
+        ProductInventory product = new ProductInventory();
+        product.setProductID(productId);
+        product.setProductName(productName);
+        product.setProductDesc(productDesc);
+        product.setPrice(100.0);
+        product.setProductQuantity(10);
+        return product;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import com.example.DepartmentalStoreCrud.service.ProductCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ProductCacheTest {
+
+    @Mock
+    private ProductInventoryRepository productInventoryRepository;
+
+    @InjectMocks
+    private ProductCache productCache;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productCache, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(productCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(productCache, "expireAfterWriteMinutes", 10L);
+        productCache.init();
+    }
+
+    @Test
+    public void testGet_LoadsOnceAndServesACopy() {
+        ProductInventory product = createProduct(1L);
+        when(productInventoryRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        ProductInventory first = productCache.get(1L);
+        ProductInventory second = productCache.get(1L);
+
+        assertEquals(product, first);
+        assertNotSame(product, first);
+        assertSame(first, second);
+        verify(productInventoryRepository, times(1)).findById(1L);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testGet_ConcurrentMissesShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productInventoryRepository.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(createProduct(1L));
+        });
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProductInventory>> reads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(readers.submit(() -> productCache.get(1L)));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            release.countDown();
+            ProductInventory first = reads.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<ProductInventory> read : reads) {
+                assertSame(first, read.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+        verify(productInventoryRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void testGet_MissingProductIsNotCached() {
+        when(productInventoryRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertNull(productCache.get(2L));
+        assertNull(productCache.get(2L));
+        verify(productInventoryRepository, times(2)).findById(2L);
+    }
+
+    @Test
+    public void testGetAll_LoadsMissesWithOneQuery() {
+        when(productInventoryRepository.findById(1L)).thenReturn(Optional.of(createProduct(1L)));
+        when(productInventoryRepository.findAllById(anyCollection())).thenReturn(List.of(createProduct(3L)));
+        productCache.get(1L);
+
+        Map<Long, ProductInventory> products = productCache.getAll(List.of(1L, 3L, 4L));
+
+        assertEquals(2, products.size());
+        assertEquals(3L, products.get(3L).getProductID());
+        assertFalse(products.containsKey(4L));
+        verify(productInventoryRepository, times(1)).findAllById(Set.of(3L, 4L));
+    }
+
+    @Test
+    public void testEvict_ReloadsOnNextGet() {
+        ProductInventory product = createProduct(1L);
+        when(productInventoryRepository.findById(1L)).thenReturn(Optional.of(product));
+        productCache.get(1L);
+
+        product.setProductQuantity(3);
+        productCache.evictAll(List.of(1L));
+
+        assertEquals(3, productCache.get(1L).getProductQuantity());
+        verify(productInventoryRepository, times(2)).findById(1L);
+    }
+
+    private ProductInventory createProduct(final Long productID) {
+        ProductInventory product = new ProductInventory();
+        product.setProductID(productID);
+        product.setProductName("Rice");
+        product.setProductDesc("Basmati rice");
+        product.setPrice(80.0);
+        product.setProductQuantity(10);
+        return product;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
+import com.example.DepartmentalStoreCrud.service.BackorderService;
+import com.example.DepartmentalStoreCrud.service.InventoryCounter;
+import com.example.DepartmentalStoreCrud.service.ProductAutocompleteIndex;
+import com.example.DepartmentalStoreCrud.service.ProductCache;
+import com.example.DepartmentalStoreCrud.service.ProductExcelService;
+import com.example.DepartmentalStoreCrud.service.ProductImportJobs;
+import com.example.DepartmentalStoreCrud.service.ProductImportWriter;
+import com.example.DepartmentalStoreCrud.service.ProductRowValidator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ProductExcelServiceTest {
+
+    private static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    @Mock
+    private ProductBatchRepository productBatchRepo;
+
+    @Mock
+    private ProductAutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private BackorderService backorderService;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private InventoryCounter inventoryCounter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProductImportWriter importWriter;
+
+    @InjectMocks
+    private ProductExcelService productExcelService;
+
+    private List<List<ProductInventory>> savedChunks;
+
+    private final ForkJoinPool sheetPool = new ForkJoinPool(2);
+
+    private final ProductImportJobs importJobs = new ProductImportJobs();
+
+    @AfterEach
+    public void tearDown() {
+        sheetPool.shutdown();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productExcelService, "chunkSize", 2);
+        ReflectionTestUtils.setField(importJobs, "jobRetentionMinutes", 60L);
+        ReflectionTestUtils.setField(importJobs, "maxRejectedRows", 1);
+        ReflectionTestUtils.setField(importJobs, "importExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(productExcelService, "importJobs", importJobs);
+        ReflectionTestUtils.setField(productExcelService, "importSheetPool", sheetPool);
+        ReflectionTestUtils.setField(productExcelService, "rowValidator", new ProductRowValidator());
+        ReflectionTestUtils.setField(productExcelService, "importWriter", importWriter);
+        importWriter.init();
+        savedChunks = Collections.synchronizedList(new ArrayList<>());
+        when(productBatchRepo.insertAll(anyList())).thenAnswer(invocation -> {
+            List<ProductInventory> chunk = new ArrayList<>(invocation.getArgument(0));
+            savedChunks.add(chunk);
+            return chunk;
+        });
+    }
+
+    @Test
+    public void testAddProductsViaExcel_SavesInChunks() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "products.xlsx", XLSX,
+                workbook("productData", 5));
+
+        ImportJob job = productExcelService.addProductsViaExcel(file, ImportJob.Mode.INSERT);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(5, job.getRowsParsed());
+        assertEquals(5, job.getRowsPersisted());
+        assertEquals(0, job.getRowsRejected());
+        assertSame(job, productExcelService.getImportJob(job.getJobID()));
+        assertEquals(3, savedChunks.size());
+        assertEquals(2, savedChunks.get(0).size());
+        assertEquals(1, savedChunks.get(2).size());
+        ProductInventory first = savedChunks.get(0).get(0);
+        assertEquals("Product 1", first.getProductName());
+        assertEquals("Description 1", first.getProductDesc());
+        assertEquals(1.5, first.getPrice());
+        assertEquals(10, first.getProductQuantity());
+        assertEquals("Product 5", savedChunks.get(2).get(0).getProductName());
+        verify(autocompleteIndex, times(3)).indexAll(anyList());
+    }
+
+    @Test
+    public void testAddProductsViaExcel_AllSheetsWithRejectedRows() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            addSheet(workbook, "grocery", 2);
+            Sheet dairy = addSheet(workbook, "dairy", 1);
+            Row badPrice = dairy.createRow(2);
+            badPrice.createCell(0).setCellValue("Milk");
+            badPrice.createCell(1).setCellValue("Full cream");
+            badPrice.createCell(2).setCellValue("cheap");
+            badPrice.createCell(3).setCellValue(4);
+            Row noName = dairy.createRow(3);
+            noName.createCell(1).setCellValue("Curd");
+            noName.createCell(2).setCellValue(2.0);
+            noName.createCell(3).setCellValue(1);
+            MockMultipartFile file = new MockMultipartFile("file", "products.xlsx", XLSX, toBytes(workbook));
+
+            ImportJob job = productExcelService.addProductsViaExcel(file, ImportJob.Mode.INSERT);
+
+            assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+            assertEquals(5, job.getRowsParsed());
+            assertEquals(3, job.getRowsPersisted());
+            assertEquals(2, job.getRowsRejected());
+            assertEquals(1, job.getRejectedRows().size());
+            assertEquals("dairy", job.getRejectedRows().get(0).getSource());
+            assertEquals(3, job.getRejectedRows().get(0).getRow());
+            assertEquals("price is not a number: cheap", job.getRejectedRows().get(0).getReason());
+        }
+    }
+
+    @Test
+    public void testAddProductsViaExcel_UpsertRejectsBlankStock() throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = addSheet(workbook, "grocery", 1);
+            Row noQuantity = sheet.createRow(2);
+            noQuantity.createCell(0).setCellValue("Milk");
+            noQuantity.createCell(1).setCellValue("Full cream");
+            noQuantity.createCell(2).setCellValue(2.0);
+            MockMultipartFile file = new MockMultipartFile("file", "products.xlsx", XLSX, toBytes(workbook));
+            when(productBatchRepo.findBySearchNames(anyCollection())).thenReturn(Map.of());
+
+            ImportJob job = productExcelService.addProductsViaExcel(file, ImportJob.Mode.UPSERT);
+
+            assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+            assertEquals(1, job.getRowsPersisted());
+            assertEquals(1, job.getRowsRejected());
+            assertEquals("productQuantity is missing", job.getRejectedRows().get(0).getReason());
+        }
+    }
+
+    @Test
+    public void testAddProductsViaExcel_UnreadableFile() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "products.xlsx", XLSX, "not a workbook".getBytes());
+
+        ImportJob job = productExcelService.addProductsViaExcel(file, ImportJob.Mode.INSERT);
+
+        assertEquals(ImportJob.Status.FAILED, job.getStatus());
+        assertNotNull(job.getError());
+        verify(productBatchRepo, never()).insertAll(anyList());
+    }
+
+    @Test
+    public void testAddProductsViaExcel_Rejected() throws IOException {
+        TaskExecutor executor = mock(TaskExecutor.class);
+        doThrow(new TaskRejectedException("full")).when(executor).execute(any(Runnable.class));
+        ReflectionTestUtils.setField(importJobs, "importExecutor", executor);
+        MockMultipartFile file = new MockMultipartFile("file", "products.xlsx", XLSX,
+                workbook("productData", 1));
+
+        assertThrows(TaskRejectedException.class, () -> productExcelService.addProductsViaExcel(file, ImportJob.Mode.INSERT));
+    }
+
+    @Test
+    public void testGetImportJob_NonexistentId() {
+        assertThrows(NoSuchElementException.class, () -> productExcelService.getImportJob("missing"));
+    }
+
+    @Test
+    public void testAddProductsViaExcel_InvalidFormat() {
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv", new byte[0]);
+
+        assertThrows(IOException.class, () -> productExcelService.addProductsViaExcel(file, ImportJob.Mode.INSERT));
+        verify(productBatchRepo, never()).insertAll(anyList());
+    }
+
+    private byte[] workbook(final String sheetName, final int rows) throws IOException {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            addSheet(workbook, sheetName, rows);
+            return toBytes(workbook);
+        }
+    }
+
+    private Sheet addSheet(final XSSFWorkbook workbook, final String sheetName, final int rows) {
+        Sheet sheet = workbook.createSheet(sheetName);
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("productName");
+        header.createCell(1).setCellValue("productDesc");
+        header.createCell(2).setCellValue("price");
+        header.createCell(3).setCellValue("productQuantity");
+        for (int i = 1; i <= rows; i++) {
+            Row row = sheet.createRow(i);
+            row.createCell(0).setCellValue("Product " + i);
+            row.createCell(1).setCellValue("Description " + i);
+            row.createCell(2).setCellValue(i + 0.5);
+            row.createCell(3).setCellValue(i * 10);
+        }
+        return sheet;
+    }
+
+    private byte[] toBytes(final XSSFWorkbook workbook) throws IOException {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            workbook.write(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import com.example.DepartmentalStoreCrud.service.ProductExportService;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ProductExportServiceTest {
+
+    @Mock
+    private ProductInventoryRepository productRepo;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ProductExportService productExportService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(productRepo.streamAllOrderByProductID()).thenReturn(Stream.of(
+                createProduct(1L, "Soap", "Lavender, 100g", 10.5, 5),
+                createProduct(2L, "Rice", "Basmati \"extra\"", 20000000.0, 10)));
+    }
+
+    @Test
+    public void testExportProducts_Csv() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        productExportService.exportProducts(ProductExportService.Format.CSV, output);
+
+        assertEquals("productName,productDesc,price,productQuantity,productID\r\n"
+                + "Soap,\"Lavender, 100g\",10.5,5,1\r\n"
+                + "Rice,\"Basmati \"\"extra\"\"\",20000000,10,2\r\n", output.toString(StandardCharsets.UTF_8));
+        verify(entityManager, times(2)).detach(any(ProductInventory.class));
+    }
+
+    @Test
+    public void testExportProducts_Xlsx() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        productExportService.exportProducts(ProductExportService.Format.XLSX, output);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(output.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("productData");
+            assertEquals(2, sheet.getLastRowNum());
+            assertEquals("productName", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Rice", sheet.getRow(2).getCell(0).getStringCellValue());
+            assertEquals(20000000.0, sheet.getRow(2).getCell(2).getNumericCellValue());
+            assertEquals(2.0, sheet.getRow(2).getCell(4).getNumericCellValue());
+        }
+        verify(entityManager, times(2)).detach(any(ProductInventory.class));
+    }
+
+    @Test
+    public void testFormatFrom() {
+        assertEquals(ProductExportService.Format.CSV, ProductExportService.Format.from("csv"));
+        assertThrows(IllegalArgumentException.class, () -> ProductExportService.Format.from("pdf"));
+    }
+
+    private ProductInventory createProduct(final Long id, final String name, final String desc, final double price, final int quantity) {
+        ProductInventory product = new ProductInventory();
+        product.setProductID(id);
+        product.setProductName(name);
+        product.setProductDesc(desc);
+        product.setPrice(price);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
+import com.example.DepartmentalStoreCrud.service.ProductFeedService;
+import com.example.DepartmentalStoreCrud.service.ProductImportJobs;
+import com.example.DepartmentalStoreCrud.service.ProductImportWriter;
+import com.example.DepartmentalStoreCrud.service.ProductRowValidator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ProductFeedServiceTest {
+
+    @Mock
+    private ProductImportWriter importWriter;
+
+    @InjectMocks
+    private ProductFeedService productFeedService;
+
+    private final ProductImportJobs importJobs = new ProductImportJobs();
+
+    private List<ProductInventory> saved;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(importJobs, "jobRetentionMinutes", 60L);
+        ReflectionTestUtils.setField(importJobs, "maxRejectedRows", 10);
+        ReflectionTestUtils.setField(importJobs, "importExecutor", new SyncTaskExecutor());
+        ReflectionTestUtils.setField(productFeedService, "importJobs", importJobs);
+        ReflectionTestUtils.setField(productFeedService, "rowValidator", new ProductRowValidator());
+        ReflectionTestUtils.setField(productFeedService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(productFeedService, "chunkSize", 2);
+        saved = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<ProductInventory> chunk = invocation.getArgument(0);
+            saved.addAll(chunk);
+            ((ImportJob) invocation.getArgument(1)).rowsPersisted(chunk.size());
+            return null;
+        }).when(importWriter).write(anyList(), any(ImportJob.class));
+    }
+
+    @Test
+    public void testAddProductsViaFeed_Csv() throws IOException {
+        String csv = "price,productName,productDesc,productQuantity\r\n"
+                + "10.5,Soap,\"Lavender, 100g\",5\r\n"
+                + "2,Rice,\"Basmati \"\"extra\"\"\nlong grain\",10.0\r\n"
+                + "cheap,Tea,Green tea,1\r\n"
+                + "\r\n"
+                + "4,Milk,Full cream,3\r\n";
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = productFeedService.addProductsViaFeed(file, ImportJob.Mode.INSERT);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(4, job.getRowsParsed());
+        assertEquals(3, job.getRowsPersisted());
+        assertEquals(1, job.getRowsRejected());
+        assertEquals(5, job.getRejectedRows().get(0).getRow());
+        assertEquals("Lavender, 100g", saved.get(0).getProductDesc());
+        assertEquals(10.5, saved.get(0).getPrice());
+        assertEquals("Basmati \"extra\"\nlong grain", saved.get(1).getProductDesc());
+        assertEquals(10, saved.get(1).getProductQuantity());
+        assertEquals("Milk", saved.get(2).getProductName());
+        verify(importWriter, times(2)).write(anyList(), any(ImportJob.class));
+    }
+
+    @Test
+    public void testAddProductsViaFeed_CsvWithByteOrderMark() throws IOException {
+        String csv = "\uFEFFproductName,productDesc,price,productQuantity\r\n"
+                + "Soap,Lavender,10.5,5\r\n";
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = productFeedService.addProductsViaFeed(file, ImportJob.Mode.INSERT);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getRowsPersisted());
+        assertEquals("Soap", saved.get(0).getProductName());
+    }
+
+    @Test
+    public void testAddProductsViaFeed_CsvMissingColumn() throws IOException {
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv",
+                "productName,price\nSoap,1\n".getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = productFeedService.addProductsViaFeed(file, ImportJob.Mode.INSERT);
+
+        assertEquals(ImportJob.Status.FAILED, job.getStatus());
+        assertEquals("The CSV header has no productDesc column", job.getError());
+    }
+
+    @Test
+    public void testAddProductsViaFeed_Ndjson() throws IOException {
+        String ndjson = "{\"productName\":\"Soap\",\"productDesc\":\"Lavender\",\"price\":10.5,\"productQuantity\":5}\n"
+                + "{\"productName\":\"Rice\"\n"
+                + "[1,2]\n"
+                + "{\"productName\":\"Tea\",\"productDesc\":\"Green\",\"price\":\"2\",\"productQuantity\":-1}\n";
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.ndjson", "application/x-ndjson",
+                ndjson.getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = productFeedService.addProductsViaFeed(file, ImportJob.Mode.INSERT);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(4, job.getRowsParsed());
+        assertEquals(1, job.getRowsPersisted());
+        assertEquals(3, job.getRowsRejected());
+        assertEquals("line is not valid JSON", job.getRejectedRows().get(0).getReason());
+        assertEquals("line is not a JSON object", job.getRejectedRows().get(1).getReason());
+        assertEquals("productQuantity must not be negative", job.getRejectedRows().get(2).getReason());
+        assertEquals("Soap", saved.get(0).getProductName());
+    }
+
+    @Test
+    public void testAddProductsViaFeed_UpsertRejectsBlankPrice() throws IOException {
+        String ndjson = "{\"productName\":\"Soap\",\"productDesc\":\"Lavender\",\"productQuantity\":5}\n"
+                + "{\"productName\":\"Tea\",\"productDesc\":\"Green\",\"price\":2,\"productQuantity\":1}\n";
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.ndjson", "application/x-ndjson",
+                ndjson.getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = productFeedService.addProductsViaFeed(file, ImportJob.Mode.UPSERT);
+
+        assertEquals(1, job.getRowsPersisted());
+        assertEquals("price is missing", job.getRejectedRows().get(0).getReason());
+        assertEquals("Tea", saved.get(0).getProductName());
+    }
+
+    @Test
+    public void testAddProductsViaFeed_InvalidFormat() {
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.txt", "text/plain", new byte[0]);
+
+        assertThrows(IOException.class, () -> productFeedService.addProductsViaFeed(file, ImportJob.Mode.INSERT));
+        verify(importWriter, never()).write(anyList(), any(ImportJob.class));
+    }
+
+    @Test
+    public void testAddProductsViaFeed_RequestBody() throws IOException {
+        String csv = "productName,productDesc,price,productQuantity\n"
+                + "Soap,\"Lavender\n100g\",10.5,5\n"
+                + "Tea,Green tea,cheap,1\n";
+
+        ImportJob job = productFeedService.addProductsViaFeed(
+                Channels.newChannel(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))),
+                null, "text/csv; charset=utf-8", ImportJob.Mode.INSERT);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals("feed.csv", job.getFileName());
+        assertEquals(1, job.getRowsPersisted());
+        assertEquals(4, job.getRejectedRows().get(0).getRow());
+        assertEquals("Lavender\n100g", saved.get(0).getProductDesc());
+    }
+
+    @Test
+    public void testAddProductsViaFeed_CsvRejectsMalformedUtf8() throws IOException {
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        csv.write("productName,productDesc,price,productQuantity\nSoap,Lav".getBytes(StandardCharsets.UTF_8));
+        csv.write(new byte[]{(byte) 0xC3, (byte) 0x28});
+        csv.write("ender,10.5,5\nTea,Green tea,2,1\n".getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile file = new MockMultipartFile("file", "catalog.csv", "text/csv", csv.toByteArray());
+
+        ImportJob job = productFeedService.addProductsViaFeed(file, ImportJob.Mode.INSERT);
+
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        assertEquals(1, job.getRowsPersisted());
+        assertEquals(2, job.getRejectedRows().get(0).getRow());
+        assertEquals("row is not valid UTF-8", job.getRejectedRows().get(0).getReason());
+        assertEquals("Tea", saved.get(0).getProductName());
+    }
+
+    @Test
+    public void testAddProductsViaFeed_NdjsonRejectsMalformedUtf8() throws IOException {
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        ndjson.write("{\"productName\":\"So".getBytes(StandardCharsets.UTF_8));
+        ndjson.write(new byte[]{(byte) 0xFF});
+        ndjson.write(("ap\",\"productDesc\":\"Lavender\",\"price\":10.5,\"productQuantity\":5}\n"
+                + "{\"productName\":\"Tea\",\"productDesc\":\"Green\",\"price\":2,\"productQuantity\":1}\n")
+                .getBytes(StandardCharsets.UTF_8));
+
+        ImportJob job = productFeedService.addProductsViaFeed(Channels.newChannel(new ByteArrayInputStream(ndjson.toByteArray())),
+                "catalog.ndjson", "application/x-ndjson", ImportJob.Mode.INSERT);
+
+        assertEquals(1, job.getRowsPersisted());
+        assertEquals(1, job.getRejectedRows().get(0).getRow());
+        assertEquals("line is not valid UTF-8", job.getRejectedRows().get(0).getReason());
+    }
+}
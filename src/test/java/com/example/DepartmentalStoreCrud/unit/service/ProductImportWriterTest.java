@@ -0,0 +1,182 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.ImportJob;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
+import com.example.DepartmentalStoreCrud.service.BackorderService;
+import com.example.DepartmentalStoreCrud.service.InventoryCounter;
+import com.example.DepartmentalStoreCrud.service.ProductAutocompleteIndex;
+import com.example.DepartmentalStoreCrud.service.ProductCache;
+import com.example.DepartmentalStoreCrud.service.ProductImportWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class ProductImportWriterTest {
+
+    @Mock
+    private ProductBatchRepository productBatchRepo;
+
+    @Mock
+    private ProductAutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private BackorderService backorderService;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private InventoryCounter inventoryCounter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ProductImportWriter importWriter;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        importWriter.init();
+    }
+
+    @Test
+    public void testWrite_Insert() {
+        ImportJob job = new ImportJob("products.xlsx", ImportJob.Mode.INSERT, 10);
+        List<ProductInventory> products = List.of(createProduct("Soap", 5), createProduct("Rice", 10));
+        when(productBatchRepo.insertAll(products)).thenReturn(products);
+
+        importWriter.write(products, job);
+
+        verify(productBatchRepo, times(1)).insertAll(products);
+        verify(productBatchRepo, never()).findBySearchNames(anyCollection());
+        verify(autocompleteIndex, times(1)).indexAll(products);
+        assertEquals(2, job.getRowsPersisted());
+        assertEquals(0, job.getRowsUpdated());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWrite_UpsertUpdatesMatchesAndInsertsTheRest() {
+        ImportJob job = new ImportJob("products.xlsx", ImportJob.Mode.UPSERT, 10);
+        ProductInventory soap = createProduct("Soap", 5);
+        ProductInventory rice = createProduct("Rice", 10);
+        ProductInventory storedRice = createProduct("rice", 4);
+        storedRice.setProductID(7L);
+        when(productBatchRepo.findBySearchNames(anyCollection())).thenReturn(Map.of("rice", storedRice));
+
+        importWriter.write(List.of(soap, rice), job);
+
+        ArgumentCaptor<Collection<String>> names = ArgumentCaptor.forClass(Collection.class);
+        verify(productBatchRepo, times(1)).findBySearchNames(names.capture());
+        assertEquals(Set.of("soap", "rice"), Set.copyOf(names.getValue()));
+        assertEquals(7L, rice.getProductID());
+        verify(productBatchRepo, times(1)).updateAll(List.of(rice));
+        verify(productCache, times(1)).evictAll(List.of(7L));
+        verify(inventoryCounter, times(1)).adjust(7L, 6);
+        verify(productBatchRepo, times(1)).insertAll(List.of(soap));
+        verify(backorderService, times(1)).fulfilBackorders(7L);
+        assertEquals(2, job.getRowsPersisted());
+        assertEquals(1, job.getRowsUpdated());
+    }
+
+    @Test
+    public void testWrite_UpsertCountsMergedRowsOnce() {
+        ImportJob job = new ImportJob("products.xlsx", ImportJob.Mode.UPSERT, 10);
+        when(productBatchRepo.findBySearchNames(anyCollection())).thenReturn(Map.of());
+
+        importWriter.write(List.of(createProduct("Rice", 2), createProduct("rice", 3), createProduct("Soap", 1)), job);
+
+        assertEquals(2, job.getRowsPersisted());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWrite_ConcurrentUpsertsInsertANewNameOnce() throws Exception {
+        Set<String> stored = ConcurrentHashMap.newKeySet();
+        List<String> inserted = Collections.synchronizedList(new ArrayList<>());
+        when(productBatchRepo.findBySearchNames(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(50);
+            Map<String, ProductInventory> found = new HashMap<>();
+            for (String name : (Collection<String>) invocation.getArgument(0)) {
+                if (stored.contains(name)) {
+                    ProductInventory product = createProduct(name, 1);
+                    product.setProductID(7L);
+                    found.put(name, product);
+                }
+            }
+            return found;
+        });
+        when(productBatchRepo.insertAll(anyList())).thenAnswer(invocation -> {
+            for (ProductInventory product : (List<ProductInventory>) invocation.getArgument(0)) {
+                stored.add(product.getProductName().toLowerCase(Locale.ROOT));
+                inserted.add(product.getProductName());
+            }
+            return invocation.getArgument(0);
+        });
+        ExecutorService sheets = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                ImportJob job = new ImportJob("products.xlsx", ImportJob.Mode.UPSERT, 10);
+                writes.add(sheets.submit(() -> importWriter.write(List.of(createProduct("Rice", 5)), job)));
+            }
+            for (Future<?> write : writes) {
+                write.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            sheets.shutdownNow();
+        }
+
+        assertEquals(List.of("Rice"), inserted);
+        verify(productBatchRepo, times(1)).updateAll(argThat(updates -> updates.size() == 1 && updates.get(0).getProductID() == 7L));
+    }
+
+    @Test
+    public void testWrite_UpsertWithoutRestockLeavesBackorders() {
+        ImportJob job = new ImportJob("products.xlsx", ImportJob.Mode.UPSERT, 10);
+        ProductInventory rice = createProduct("Rice", 2);
+        ProductInventory storedRice = createProduct("rice", 4);
+        storedRice.setProductID(7L);
+        when(productBatchRepo.findBySearchNames(anyCollection())).thenReturn(Map.of("rice", storedRice));
+
+        importWriter.write(List.of(rice), job);
+
+        verify(productBatchRepo, times(1)).updateAll(List.of(rice));
+        verify(backorderService, never()).fulfilBackorders(anyLong());
+    }
+
+    private ProductInventory createProduct(final String name, final int quantity) {
+        ProductInventory product = new ProductInventory();
+        product.setProductName(name);
+        product.setProductDesc(name + " description");
+        product.setPrice(10.0);
+        product.setProductQuantity(quantity);
+        return product;
+    }
+}
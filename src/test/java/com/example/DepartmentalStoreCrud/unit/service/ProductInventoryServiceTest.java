@@ -1,7 +1,15 @@
 package com.example.DepartmentalStoreCrud.unit.service;
 
 import com.example.DepartmentalStoreCrud.bean.ProductInventory;
+import com.example.DepartmentalStoreCrud.dto.CursorPage;
+import com.example.DepartmentalStoreCrud.dto.Lookup;
+import com.example.DepartmentalStoreCrud.exception.InvalidRequestException;
+import com.example.DepartmentalStoreCrud.repository.ProductBatchRepository;
 import com.example.DepartmentalStoreCrud.repository.ProductInventoryRepository;
+import com.example.DepartmentalStoreCrud.service.BackorderService;
+import com.example.DepartmentalStoreCrud.service.InventoryCounter;
+import com.example.DepartmentalStoreCrud.service.ProductAutocompleteIndex;
+import com.example.DepartmentalStoreCrud.service.ProductCache;
 import com.example.DepartmentalStoreCrud.service.ProductInventoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,6 +17,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 
@@ -21,12 +35,55 @@ public class ProductInventoryServiceTest {
     @Mock
     private ProductInventoryRepository productInventoryRepository;
 
+    @Mock
+    private BackorderService backorderService;
+
+    @Mock
+    private ProductAutocompleteIndex autocompleteIndex;
+
+    @Mock
+    private ProductCache productCache;
+
+    @Mock
+    private InventoryCounter inventoryCounter;
+
+    @Mock
+    private ProductBatchRepository productBatchRepository;
+
     @InjectMocks
     private ProductInventoryService productInventoryService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(productInventoryService, "maxPageSize", 50);
+        ReflectionTestUtils.setField(productInventoryService, "maxLookupIds", 3);
+    }
+
+    @Test
+    public void testGetProductsAfter() {
+        List<ProductInventory> products = List.of(createProduct(11L), createProduct(12L));
+        when(productInventoryRepository.findByProductIDGreaterThanOrderByProductIDAsc(10L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(products, PageRequest.of(0, 2), true));
+
+        CursorPage<ProductInventory> page = productInventoryService.getProductsAfter(10L, 2);
+
+        assertEquals(products, page.getContent());
+        assertTrue(page.isHasNext());
+        assertEquals("12", page.getNextCursor());
+        verify(productInventoryRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    public void testGetProductsAfter_LastPageAndLimitCapped() {
+        when(productInventoryRepository.findByProductIDGreaterThanOrderByProductIDAsc(0L, PageRequest.of(0, 50)))
+                .thenReturn(new SliceImpl<>(List.of(createProduct(1L)), PageRequest.of(0, 50), false));
+
+        CursorPage<ProductInventory> page = productInventoryService.getProductsAfter(0L, 1000);
+
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        verify(productInventoryRepository, times(1)).findByProductIDGreaterThanOrderByProductIDAsc(0L, PageRequest.of(0, 50));
     }
 
     @Test
@@ -47,7 +104,7 @@ public class ProductInventoryServiceTest {
         // Arrange
         Long productId = 1L;
         ProductInventory productInventory = createProduct(productId); // Sample order with ID 1L
-        when(productInventoryRepository.findById(productId)).thenReturn(Optional.of(productInventory));
+        when(productCache.get(productId)).thenReturn(productInventory);
 
         //Argument Captor
         ArgumentCaptor<Long> productIdCaptor = ArgumentCaptor.forClass(Long.class);
@@ -57,18 +114,49 @@ public class ProductInventoryServiceTest {
 
         // Assert
         assertEquals(productInventory, result);
-        verify(productInventoryRepository, times(1)).findById(productIdCaptor.capture());
+        verify(productCache, times(1)).get(productIdCaptor.capture());
         assertEquals(productId, productIdCaptor.getValue());
+        verify(productInventoryRepository, never()).findById(anyLong());
     }
 
     @Test
     public void testGetProductById_NonExistingProduct() {
         // Arrange
         Long productId = 1L;
-        when(productInventoryRepository.findById(productId)).thenReturn(Optional.empty());
+        when(productCache.get(productId)).thenReturn(null);
         assertThatThrownBy(() -> productInventoryService.getProductById(productId))
                 .isInstanceOf(NoSuchElementException.class);
-        verify(productInventoryRepository, times(1)).findById(productId);
+        verify(productCache, times(1)).get(productId);
+    }
+
+    @Test
+    public void testGetProductsByIds_KeepsRequestOrder() {
+        ProductInventory first = createProduct(1L);
+        ProductInventory second = createProduct(2L);
+        when(productCache.getAll(anyCollection())).thenReturn(Map.of(1L, first, 2L, second));
+
+        Lookup<ProductInventory> lookup = productInventoryService.getProductsByIds(List.of(2L, 9L, 1L, 2L));
+
+        assertEquals(List.of(second, first), lookup.getFound());
+        assertEquals(List.of(9L), lookup.getMissing());
+        verify(productCache, times(1)).getAll(Set.of(2L, 9L, 1L));
+        verify(productCache, never()).get(anyLong());
+    }
+
+    @Test
+    public void testGetProductsByIds_TooMany() {
+        InvalidRequestException e = assertThrows(InvalidRequestException.class,
+                () -> productInventoryService.getProductsByIds(List.of(1L, 2L, 3L, 4L)));
+        assertEquals("At most 3 IDs can be looked up at once", e.getMessage());
+        verifyNoInteractions(productCache);
+    }
+
+    @Test
+    public void testGetProductsByIds_NullId() {
+        InvalidRequestException e = assertThrows(InvalidRequestException.class,
+                () -> productInventoryService.getProductsByIds(Arrays.asList(1L, null)));
+        assertEquals("IDs must not be null", e.getMessage());
+        verifyNoInteractions(productCache);
     }
 
     @Test
@@ -85,6 +173,8 @@ public class ProductInventoryServiceTest {
         assertEquals(productInventory, newProduct);
         verify(productInventoryRepository, times(1)).save(productCaptor.capture());
         assertEquals(productInventory, productCaptor.getValue());
+        verify(autocompleteIndex, times(1)).indexAfterCommit(productInventory);
+        verify(productBatchRepository, times(1)).replaceSearchTokens(List.of(productInventory));
     }
 
     @Test
@@ -103,7 +193,7 @@ public class ProductInventoryServiceTest {
         // Arrange
         ProductInventory product = createProduct(1L); // Sample product with ID 1L
         when(productInventoryRepository.findById(product.getProductID())).thenReturn(Optional.of(product));
-        when(productInventoryRepository.save(product)).thenReturn(product);
+        when(productInventoryRepository.saveAndFlush(product)).thenReturn(product);
         product.setProductName("Thar");
 
         //Argument captor
@@ -116,8 +206,30 @@ public class ProductInventoryServiceTest {
 
         // Assert
         verify(productInventoryRepository, times(1)).findById(product.getProductID());
-        verify(productInventoryRepository, times(1)).save(productCaptor.capture());
+        verify(productInventoryRepository, times(1)).saveAndFlush(productCaptor.capture());
         assertEquals(product, productCaptor.getValue());
+        verify(backorderService, never()).fulfilBackorders(anyLong());
+        verify(autocompleteIndex, times(1)).indexAfterCommit(product);
+        verify(productCache, times(1)).evict(product.getProductID());
+    }
+
+    @Test
+    public void testUpdateProductDetails_RestockFulfilsBackorders() {
+        // Arrange
+        ProductInventory existingProduct = createProduct(1L);
+        existingProduct.setProductQuantity(0);
+        ProductInventory restock = createProduct(1L);
+        restock.setProductQuantity(20);
+        when(productInventoryRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(productInventoryRepository.saveAndFlush(existingProduct)).thenReturn(existingProduct);
+
+        // Act
+        productInventoryService.updateProductDetails(1L, restock);
+
+        // Assert
+        assertEquals(20, existingProduct.getProductQuantity());
+        verify(inventoryCounter, times(1)).adjust(1L, 20);
+        verify(backorderService, times(1)).fulfilBackorders(1L);
     }
 
     @Test
@@ -128,7 +240,7 @@ public class ProductInventoryServiceTest {
         assertThatThrownBy(() -> productInventoryService.updateProductDetails(anyLong(), productInventory))
                 .isInstanceOf(NoSuchElementException.class);
         verify(productInventoryRepository, times(1)).findById(anyLong());
-        verify(productInventoryRepository, never()).save(productInventory);
+        verify(productInventoryRepository, never()).saveAndFlush(productInventory);
     }
 
     @Test
@@ -147,6 +259,9 @@ public class ProductInventoryServiceTest {
         // Assert
         verify(productInventoryRepository, times(1)).deleteById(productIdCaptor.capture());
         assertEquals(productId, productIdCaptor.getValue());
+        verify(autocompleteIndex, times(1)).removeAfterCommit(productId);
+        verify(productCache, times(1)).evict(productId);
+        verify(productBatchRepository, times(1)).deleteSearchTokens(List.of(productId));
     }
 
     @Test
@@ -161,6 +276,7 @@ public class ProductInventoryServiceTest {
         // Assert
         verify(productInventoryRepository, times(1)).findById(productId);
         verify(productInventoryRepository, never()).delete(any());
+        verify(productCache, never()).evict(anyLong());
     }
 
     @Test
@@ -168,29 +284,39 @@ public class ProductInventoryServiceTest {
         List<ProductInventory> productInventory = new ArrayList<>();
         productInventory.add(createProduct(1L, "Furniture", "Office chair", 100.0, 10));
         productInventory.add(createProduct(2L, "Furniture", "Gaming chair", 100.0, 10));
-        productInventory.add(createProduct(3L, "Jacket", "Puff Jacket", 100.0, 10));
+        PageRequest pageRequest = PageRequest.of(0, 20, Sort.by("productID"));
+
+        when(productInventoryRepository.findByNameToken(eq("chair%"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(productInventory, pageRequest, false));
+        Slice<ProductInventory> result = productInventoryService.searchProducts("Chair", 0, 20);
+        assertEquals(2, result.getContent().size());
+        assertEquals("Office chair", result.getContent().get(0).getProductName());
+        assertEquals("Gaming chair", result.getContent().get(1).getProductName());
+        verify(productInventoryRepository).findByNameToken(eq("chair%"), eq(pageRequest));
+        verify(productInventoryRepository, never()).findAll();
+    }
 
-        when(productInventoryRepository.findAll()).thenReturn(productInventory);
-        assertNotNull(productInventory);
-        List<ProductInventory> result = productInventoryService.searchProducts("Chair");
-        assertEquals(2, result.size());
-        assertEquals("Office chair", result.get(0).getProductName());
-        assertEquals("Gaming chair", result.get(1).getProductName());
-        verify(productInventoryRepository).findAll();
+    @Test
+    public void testSearchProducts_EscapesWildcards() {
+        when(productInventoryRepository.findByNameToken(anyString(), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
+        productInventoryService.searchProducts(" 100%_Cotton! ", 0, 20);
+        verify(productInventoryRepository).findByNameToken(eq("100!%!_cotton!!%"), any(Pageable.class));
     }
 
     @Test
-    public void testSearchProducts_NoResultsFound() {
-        List<ProductInventory> productInventory = new ArrayList<>();
-        productInventory.add(createProduct(1L, "Furniture", "Office chair", 100.0, 10));
-        productInventory.add(createProduct(2L, "Furniture", "Gaming chair", 100.0, 10));
-        productInventory.add(createProduct(3L, "Jacket", "Puff Jacket", 100.0, 10));
+    public void testSearchProducts_PageSizeCapped() {
+        when(productInventoryRepository.findByNameToken(eq("office%"), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+        productInventoryService.searchProducts("office", 0, 1000);
+        verify(productInventoryRepository).findByNameToken(eq("office%"), eq(PageRequest.of(0, 50, Sort.by("productID"))));
+    }
 
-        when(productInventoryRepository.findAll()).thenReturn(productInventory);
-        assertNotNull(productInventory);
-        List<ProductInventory> result = productInventoryService.searchProducts("Mobile");
+    @Test
+    public void testSearchProducts_NoResultsFound() {
+        when(productInventoryRepository.findByNameToken(eq("mobile%"), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of()));
+        Slice<ProductInventory> result = productInventoryService.searchProducts("Mobile", 0, 20);
         assertTrue(result.isEmpty());
-        verify(productInventoryRepository).findAll();
+        verify(productInventoryRepository).findByNameToken(eq("mobile%"), any(Pageable.class));
     }
 
     private ProductInventory createProduct(Long productId) {
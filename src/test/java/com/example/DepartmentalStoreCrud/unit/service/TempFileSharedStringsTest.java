@@ -0,0 +1,55 @@
+package com.example.DepartmentalStoreCrud.unit.service;
+
+import com.example.DepartmentalStoreCrud.service.TempFileSharedStrings;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TempFileSharedStringsTest {
+
+    private File file;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        file = Files.createTempFile("strings", ".xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream output = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("productData");
+            String[] names = {"Office chair", "Gaming chair", "Office chair", "Chaise longue été"};
+            for (int i = 0; i < names.length; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(names[i]);
+            }
+            workbook.write(output);
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Test
+    public void testGetItemAt_ReadsSpooledStrings() throws Exception {
+        try (OPCPackage workbook = OPCPackage.open(file, PackageAccess.READ);
+             TempFileSharedStrings strings = new TempFileSharedStrings(workbook)) {
+            assertEquals(3, strings.getUniqueCount());
+            assertEquals(4, strings.getCount());
+            assertEquals("Office chair", strings.getItemAt(0).getString());
+            assertEquals("Gaming chair", strings.getItemAt(1).getString());
+            assertEquals("Chaise longue été", strings.getItemAt(2).getString());
+            assertThrows(IndexOutOfBoundsException.class, () -> strings.getItemAt(3));
+        }
+    }
+}